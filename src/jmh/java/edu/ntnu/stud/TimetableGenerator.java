@@ -0,0 +1,89 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes timetables for the benchmarks.
+ *
+ * <p>The departures are spread over the day with peaks in the morning and afternoon and none
+ * in the first hour, so that a clock set to midnight expires nothing. Each departure gets a
+ * track and line that are unique within its minute, a few are left without a track, and the
+ * destinations are skewed so that a few stations get most of the departures.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+final class TimetableGenerator {
+  private static final int[] HOUR_WEIGHTS = {
+      0, 1, 1, 1, 1, 2, 4, 6, 6, 4, 3, 3, 3, 3, 3, 4, 6, 6, 4, 3, 2, 2, 1, 1};
+  private static final String[] STATIONS = {
+      "Oslo S", "Trondheim", "Bergen", "Stavanger", "Drammen", "Lillehammer", "Hamar", "Bodo",
+      "Kristiansand", "Skien", "Moss", "Halden", "Gjovik", "Kongsberg", "Asker", "Ski",
+      "Lillestrom", "Eidsvoll", "Steinkjer", "Roros", "Dombas", "Andalsnes", "Myrdal", "Voss",
+      "Arendal", "Larvik", "Sandefjord", "Tonsberg", "Fredrikstad", "Sarpsborg", "Notodden",
+      "Honefoss", "Gol", "Geilo", "Finse", "Fauske", "Mosjoen", "Mo i Rana", "Narvik", "Orkanger"};
+
+  private TimetableGenerator() {
+  }
+
+  /**
+   * Makes a timetable with the given number of departures.
+   *
+   * @param size the number of departures
+   * @param seed the seed of the random generator, so that runs can be compared
+   * @return A List of new TrainDeparture objects that can all be added to one register
+   */
+  static List<TrainDeparture> generate(int size, long seed) {
+    Random random = new Random(seed);
+    int totalWeight = 0;
+    for (int weight : HOUR_WEIGHTS) {
+      totalWeight += weight;
+    }
+    int[] perMinute = new int[TrainDeparture.MINUTES_PER_DAY];
+    List<TrainDeparture> timetable = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int pick = random.nextInt(totalWeight);
+      int hour = 0;
+      while (pick >= HOUR_WEIGHTS[hour]) {
+        pick -= HOUR_WEIGHTS[hour];
+        hour++;
+      }
+      int minute = hour * 60 + random.nextInt(60);
+      int index = perMinute[minute]++;
+      String line = "L" + Integer.toString(index, 36);
+      String trainNumber = Integer.toString(i, 36);
+      double skew = random.nextDouble();
+      String destination = STATIONS[(int) (STATIONS.length * skew * skew)];
+      LocalTime departureTime = LocalTime.of(hour, minute % 60);
+      if (index == 0 && random.nextInt(10) == 0) {
+        timetable.add(new TrainDeparture(departureTime, line, trainNumber, destination));
+      } else {
+        timetable.add(
+            new TrainDeparture(departureTime, line, trainNumber, destination, index + 1));
+      }
+      if (random.nextInt(5) == 0) {
+        timetable.get(i).setDelay(LocalTime.of(0, 1 + random.nextInt(30)));
+      }
+    }
+    return timetable;
+  }
+
+  /**
+   * Makes a register with a generated timetable.
+   *
+   * @param size the number of departures
+   * @param seed the seed of the random generator
+   * @return A TrainDepartureRegister with the departures
+   */
+  static TrainDepartureRegister register(int size, long seed) {
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    for (TrainDeparture departure : generate(size, seed)) {
+      register.addTrainDeparture(departure);
+    }
+    return register;
+  }
+}
@@ -0,0 +1,69 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks that change a register as a whole: loading a full timetable with
+ * addTrainDeparture, and running a clock through the whole day so every departure expires.
+ *
+ * <p>Each iteration runs once on new departures, since a departure can only be added to
+ * a register once and expired departures are gone.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TrainDepartureLoadBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int size;
+
+  private List<TrainDeparture> timetable;
+  private TramClock clock;
+
+  /**
+   * Makes new departures for loading, and a clock at midnight with a filled register.
+   */
+  @Setup(Level.Iteration)
+  public void setup() {
+    timetable = TimetableGenerator.generate(size, 42);
+    clock = new TramClock(LocalTime.MIDNIGHT);
+    clock.addListener(TimetableGenerator.register(size, 7));
+  }
+
+  @Benchmark
+  public TrainDepartureRegister addTrainDeparture() {
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    for (TrainDeparture departure : timetable) {
+      register.addTrainDeparture(departure);
+    }
+    return register;
+  }
+
+  @Benchmark
+  public TramClock clockDayMinuteByMinute() {
+    for (int minute = 1; minute < TrainDeparture.MINUTES_PER_DAY; minute++) {
+      clock.setTime(TrainDeparture.toLocalTime(minute));
+    }
+    return clock;
+  }
+}
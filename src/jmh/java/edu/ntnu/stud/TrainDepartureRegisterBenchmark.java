@@ -0,0 +1,114 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lookups and board methods of a filled TrainDepartureRegister.
+ *
+ * <p>The register is filled once per fork. The searches go through the train numbers and
+ * destinations of the timetable in turn, and the expiry benchmark uses a clock that
+ * expires nothing, which is what most clock ticks look like.
+ *
+ * @author Jakob Huuse
+ * @version 1.1.0
+ * @since 18.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TrainDepartureRegisterBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int size;
+
+  private TrainDepartureRegister register;
+  private String[] trainNumbers;
+  private String[] destinations;
+  private int next;
+  private final StringBuilder board = new StringBuilder();
+
+  /**
+   * Fills the register and remembers the train numbers and destinations to search for.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    List<TrainDeparture> timetable = TimetableGenerator.generate(size, 42);
+    register = new TrainDepartureRegister();
+    trainNumbers = new String[size];
+    destinations = new String[size];
+    for (int i = 0; i < size; i++) {
+      TrainDeparture departure = timetable.get(i);
+      register.addTrainDeparture(departure);
+      trainNumbers[i] = departure.getTrainNumber();
+      destinations[i] = departure.getDestination();
+    }
+  }
+
+  private int nextIndex() {
+    next = next + 1 == size ? 0 : next + 1;
+    return next;
+  }
+
+  @Benchmark
+  public TrainDeparture searchTrainNumber() {
+    return register.searchTrainNumber(trainNumbers[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<TrainDeparture> searchDestination() {
+    return register.searchDestination(destinations[nextIndex()]);
+  }
+
+  @Benchmark
+  public TrainDepartureRegister removeExpiredDeparturesNoneExpired() {
+    register.removeExpiredDepartures(LocalTime.MIDNIGHT);
+    return register;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int departuresInHour() {
+    int count = 0;
+    for (TrainDeparture departure
+        : register.getDeparturesBetween(LocalTime.of(14, 0), LocalTime.of(14, 59))) {
+      count += departure.getTrack();
+    }
+    return count;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<TrainDeparture> sortByTime() {
+    return register.sortByTime();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String boardToString() {
+    return register.toString();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public StringBuilder appendBoard() {
+    board.setLength(0);
+    register.appendBoard(board);
+    return board;
+  }
+}
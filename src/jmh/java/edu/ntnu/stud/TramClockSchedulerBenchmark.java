@@ -0,0 +1,67 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of simulating a whole day with a TramClockScheduler.
+ *
+ * <p>Before each run, a register is filled and every tenth departure is scheduled to get
+ * a delay ten minutes before it leaves. The run then steps the clock through every minute
+ * of the day, which expires every departure.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TramClockSchedulerBenchmark {
+  @Param({"10000", "100000"})
+  private int size;
+
+  private TrainDepartureRegister register;
+  private TramClockScheduler scheduler;
+
+  /**
+   * Fills a new register and schedules the delays.
+   */
+  @Setup(Level.Invocation)
+  public void setup() {
+    List<TrainDeparture> timetable = TimetableGenerator.generate(size, 42);
+    register = new TrainDepartureRegister();
+    register.addTrainDepartures(timetable);
+    TramClock clock = new TramClock(LocalTime.MIDNIGHT);
+    clock.addListener(register);
+    scheduler = new TramClockScheduler(clock, true);
+    for (int i = 0; i < size; i += 10) {
+      TrainDeparture departure = timetable.get(i);
+      int minute = Math.max(0, departure.getDepartureMinute() - 10);
+      scheduler.schedule(TrainDeparture.toLocalTime(minute),
+          () -> departure.setDelay(LocalTime.of(0, 5)));
+    }
+  }
+
+  @Benchmark
+  public TrainDepartureRegister simulateDay() {
+    scheduler.runUntil(LocalTime.of(23, 59));
+    return register;
+  }
+}
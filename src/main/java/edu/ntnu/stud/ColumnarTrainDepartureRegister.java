@@ -0,0 +1,389 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ColumnarTrainDepartureRegister class manages a large collection of train departures
+ * using much less memory than TrainDepartureRegister.
+ *
+ * <p>Instead of keeping a TrainDeparture object for every departure, each field is stored in its
+ * own array, called a column, and a departure is a row index into the columns. Line, train number
+ * and destination are stored as ids into a StringDictionary, so each distinct string is only
+ * stored once. Rows of expired departures are put on a free list and reused, and the ids of
+ * their strings are released, so that neither the columns nor the dictionaries grow when
+ * departures with new train numbers keep replacing expired ones.
+ *
+ * <p>The rows with the same departure time are linked together in a chain, ordered by
+ * train number. The firstByDeparture field has the first row of each minute of the day, and the
+ * nextByDeparture column has the next row in the chain. The conflict checks only look through
+ * the chain of the departure time, and walking the chains minute by minute gives the departures
+ * in time order. The rows with the same actual departure time are chained the same way through
+ * firstByActual and nextByActual, so that expired departures can be found without a search.
+ *
+ * <p>The methods that return departures return new TrainDeparture objects made from the row,
+ * called views. The register listens to the views, so setting the track or delay of a view
+ * changes the row in the register. A view does not see changes made through other views.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class ColumnarTrainDepartureRegister implements TramClockListener, TrainDepartureListener {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int NONE = -1;
+
+  private final StringDictionary lines = new StringDictionary();
+  private final StringDictionary trainNumbers = new StringDictionary();
+  private final StringDictionary destinations = new StringDictionary();
+
+  private short[] departureMinutes = new short[INITIAL_CAPACITY];
+  private short[] delayMinutes = new short[INITIAL_CAPACITY];
+  private int[] tracks = new int[INITIAL_CAPACITY];
+  private int[] lineIds = new int[INITIAL_CAPACITY];
+  private int[] trainNumberIds = new int[INITIAL_CAPACITY];
+  private int[] destinationIds = new int[INITIAL_CAPACITY];
+  private int[] nextByDeparture = new int[INITIAL_CAPACITY];
+  private int[] nextByActual = new int[INITIAL_CAPACITY];
+  private int[] rowOfTrainNumber = new int[INITIAL_CAPACITY];
+  private final int[] firstByDeparture = new int[TrainDeparture.MINUTES_PER_DAY];
+  private final int[] firstByActual = new int[TrainDeparture.MINUTES_PER_DAY];
+  private int rowCount;
+  private int freeRow = NONE;
+  private int size;
+
+  /**
+   * A constructor that initializes an empty register.
+   */
+  public ColumnarTrainDepartureRegister() {
+    Arrays.fill(rowOfTrainNumber, NONE);
+    Arrays.fill(firstByDeparture, NONE);
+    Arrays.fill(firstByActual, NONE);
+  }
+
+  /**
+   * Gives the number of departures in the register.
+   *
+   * @return the number of departures in the register
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if you are allowed to add a train departure to the register,
+   * then copies its fields into a row. The given object is not kept by the register.
+   *
+   * @param departure A TrainDeparture object
+   * @throws IllegalArgumentException If the given TrainDeparture uses the same train number
+   *                                  of another departure that is in the register.
+   *                                  Also throws if two departures have the same departure time
+   *                                  and the same track or line.
+   */
+  public void addTrainDeparture(TrainDeparture departure) {
+    if (rowOf(departure.getTrainNumber()) != NONE) {
+      throw new IllegalArgumentException("The train number is already being used!");
+    }
+    int minute = departure.getDepartureMinute();
+    for (int row = firstByDeparture[minute]; row != NONE; row = nextByDeparture[row]) {
+      if (tracks[row] == departure.getTrack()) {
+        throw new IllegalArgumentException(
+            "There can't be two trains on one track at the same departure time!");
+      }
+    }
+    int lineId = lines.idOf(departure.getLine());
+    for (int row = firstByDeparture[minute]; row != NONE; row = nextByDeparture[row]) {
+      if (lineIds[row] == lineId) {
+        throw new IllegalArgumentException(
+            ("There can't be two trains with the same line at the same departure time!"));
+      }
+    }
+
+    int row = allocateRow();
+    departureMinutes[row] = (short) minute;
+    delayMinutes[row] = (short) departure.getDelayMinutes();
+    tracks[row] = departure.getTrack();
+    lineIds[row] = lines.add(departure.getLine());
+    destinationIds[row] = destinations.add(departure.getDestination());
+    int trainNumberId = trainNumbers.add(departure.getTrainNumber());
+    trainNumberIds[row] = trainNumberId;
+    if (trainNumberId >= rowOfTrainNumber.length) {
+      int oldLength = rowOfTrainNumber.length;
+      rowOfTrainNumber = Arrays.copyOf(rowOfTrainNumber, oldLength * 2);
+      Arrays.fill(rowOfTrainNumber, oldLength, rowOfTrainNumber.length, NONE);
+    }
+    rowOfTrainNumber[trainNumberId] = row;
+
+    String trainNumber = departure.getTrainNumber();
+    int previous = NONE;
+    int next = firstByDeparture[minute];
+    while (next != NONE && trainNumbers.get(trainNumberIds[next]).compareTo(trainNumber) < 0) {
+      previous = next;
+      next = nextByDeparture[next];
+    }
+    nextByDeparture[row] = next;
+    if (previous == NONE) {
+      firstByDeparture[minute] = row;
+    } else {
+      nextByDeparture[previous] = row;
+    }
+    linkActual(row);
+    size++;
+  }
+
+  /**
+   * Gives the number of ids the train number dictionary has given out, which is also
+   * the length of the rowOfTrainNumber column that is in use.
+   *
+   * @return the number of train number ids given out
+   */
+  int trainNumberIdCount() {
+    return trainNumbers.size();
+  }
+
+  /**
+   * Takes a row from the free list, or a new row at the end of the columns.
+   *
+   * @return the index of an unused row
+   */
+  private int allocateRow() {
+    if (freeRow != NONE) {
+      int row = freeRow;
+      freeRow = nextByDeparture[row];
+      return row;
+    }
+    if (rowCount == departureMinutes.length) {
+      int capacity = rowCount * 2;
+      departureMinutes = Arrays.copyOf(departureMinutes, capacity);
+      delayMinutes = Arrays.copyOf(delayMinutes, capacity);
+      tracks = Arrays.copyOf(tracks, capacity);
+      lineIds = Arrays.copyOf(lineIds, capacity);
+      trainNumberIds = Arrays.copyOf(trainNumberIds, capacity);
+      destinationIds = Arrays.copyOf(destinationIds, capacity);
+      nextByDeparture = Arrays.copyOf(nextByDeparture, capacity);
+      nextByActual = Arrays.copyOf(nextByActual, capacity);
+    }
+    return rowCount++;
+  }
+
+  private int actualMinute(int row) {
+    return (departureMinutes[row] + delayMinutes[row]) % TrainDeparture.MINUTES_PER_DAY;
+  }
+
+  private void linkActual(int row) {
+    int minute = actualMinute(row);
+    nextByActual[row] = firstByActual[minute];
+    firstByActual[minute] = row;
+  }
+
+  private void unlinkActual(int row) {
+    int minute = actualMinute(row);
+    if (firstByActual[minute] == row) {
+      firstByActual[minute] = nextByActual[row];
+      return;
+    }
+    int previous = firstByActual[minute];
+    while (nextByActual[previous] != row) {
+      previous = nextByActual[previous];
+    }
+    nextByActual[previous] = nextByActual[row];
+  }
+
+  private void unlinkDeparture(int row) {
+    int minute = departureMinutes[row];
+    if (firstByDeparture[minute] == row) {
+      firstByDeparture[minute] = nextByDeparture[row];
+      return;
+    }
+    int previous = firstByDeparture[minute];
+    while (nextByDeparture[previous] != row) {
+      previous = nextByDeparture[previous];
+    }
+    nextByDeparture[previous] = nextByDeparture[row];
+  }
+
+  /**
+   * Gives the row of the departure with the given train number.
+   *
+   * @param trainNumber A string that describes the train number
+   * @return the row of the departure, or -1 if the train number is not in the register
+   */
+  private int rowOf(String trainNumber) {
+    int trainNumberId = trainNumbers.idOf(trainNumber);
+    return trainNumberId == NONE ? NONE : rowOfTrainNumber[trainNumberId];
+  }
+
+  /**
+   * Gives the row a view was made from, if that departure is still in the register.
+   *
+   * @param view A TrainDeparture object made by this register
+   * @return the row of the departure, or -1 if it is no longer in the register
+   */
+  private int rowOf(TrainDeparture view) {
+    int row = rowOf(view.getTrainNumber());
+    if (row == NONE || departureMinutes[row] != view.getDepartureMinute()
+        || !lines.get(lineIds[row]).equals(view.getLine())) {
+      return NONE;
+    }
+    return row;
+  }
+
+  /**
+   * Makes a TrainDeparture object with the fields of a row, and listens to it.
+   *
+   * @param row the row of a departure
+   * @return A TrainDeparture object with the fields of the row
+   */
+  private TrainDeparture view(int row) {
+    LocalTime departureTime = TrainDeparture.toLocalTime(departureMinutes[row]);
+    String line = lines.get(lineIds[row]);
+    String trainNumber = trainNumbers.get(trainNumberIds[row]);
+    String destination = destinations.get(destinationIds[row]);
+    TrainDeparture view = tracks[row] == -1
+        ? new TrainDeparture(departureTime, line, trainNumber, destination)
+        : new TrainDeparture(departureTime, line, trainNumber, destination, tracks[row]);
+    if (delayMinutes[row] != 0) {
+      view.setDelay(TrainDeparture.toLocalTime(delayMinutes[row]));
+    }
+    view.addListener(this);
+    return view;
+  }
+
+  /**
+   * Searches after the departure with the given train number in the register.
+   *
+   * @param trainNumber A string that describes the train number
+   *                    for the TrainDeparture object you want to find
+   * @return A view of the departure with the given train number.
+   * @throws IllegalArgumentException if the train number is not in the register.
+   */
+  public TrainDeparture searchTrainNumber(String trainNumber) {
+    int row = rowOf(trainNumber);
+    if (row == NONE) {
+      throw new IllegalArgumentException("That train number is not in the register!");
+    }
+    return view(row);
+  }
+
+  /**
+   * Searches after departures with the given destination, ignoring capitalization,
+   * by finding the matching destination ids and walking the rows in time order.
+   *
+   * @param destination A string that describes
+   *                    the destination of the TrainDeparture objects you want to find.
+   * @return A sorted temporary List
+   *        containing views of the departures with the given destination.
+   * @throws IllegalArgumentException if the destination is not in the register.
+   */
+  public List<TrainDeparture> searchDestination(String destination) {
+    boolean[] matches = new boolean[destinations.size()];
+    for (int id = 0; id < matches.length; id++) {
+      matches[id] = destination.equalsIgnoreCase(destinations.get(id));
+    }
+    List<TrainDeparture> temp = new ArrayList<>();
+    for (int minute = 0; minute < TrainDeparture.MINUTES_PER_DAY; minute++) {
+      for (int row = firstByDeparture[minute]; row != NONE; row = nextByDeparture[row]) {
+        if (matches[destinationIds[row]]) {
+          temp.add(view(row));
+        }
+      }
+    }
+    if (temp.isEmpty()) {
+      throw new IllegalArgumentException("That destination is not in the register!");
+    }
+    return temp;
+  }
+
+  /**
+   * Removes expired departures from the register by emptying the chains of every actual
+   * departure time up to the clock.
+   *
+   * @param clock A LocalTime object that describes the current time.
+   */
+  public void removeExpiredDepartures(LocalTime clock) {
+    int clockMinute = TrainDeparture.toMinuteOfDay(clock);
+    for (int minute = 0; minute <= clockMinute; minute++) {
+      while (firstByActual[minute] != NONE) {
+        int row = firstByActual[minute];
+        firstByActual[minute] = nextByActual[row];
+        unlinkDeparture(row);
+        rowOfTrainNumber[trainNumberIds[row]] = NONE;
+        trainNumbers.release(trainNumberIds[row]);
+        lines.release(lineIds[row]);
+        destinations.release(destinationIds[row]);
+        nextByDeparture[row] = freeRow;
+        freeRow = row;
+        size--;
+      }
+    }
+  }
+
+  /**
+   * Makes a temporary list of views of the departures by walking the rows in time order.
+   *
+   * @return A temporary ArrayList that is sorted by departure time
+   */
+  public ArrayList<TrainDeparture> sortByTime() {
+    ArrayList<TrainDeparture> temp = new ArrayList<>(size);
+    for (int minute = 0; minute < TrainDeparture.MINUTES_PER_DAY; minute++) {
+      for (int row = firstByDeparture[minute]; row != NONE; row = nextByDeparture[row]) {
+        temp.add(view(row));
+      }
+    }
+    return temp;
+  }
+
+  @Override
+  public void update(LocalTime clock) {
+    removeExpiredDepartures(clock);
+  }
+
+  /**
+   * Writes the new track of a view back into its row.
+   *
+   * @param departure the view that changed
+   * @param oldTrack  the track the departure had before the change
+   */
+  @Override
+  public void trackChanged(TrainDeparture departure, int oldTrack) {
+    int row = rowOf(departure);
+    if (row != NONE) {
+      tracks[row] = departure.getTrack();
+    }
+  }
+
+  /**
+   * Writes the new delay of a view back into its row,
+   * and moves the row to the chain of its new actual departure time.
+   *
+   * @param departure the view that changed
+   * @param oldDelay  a LocalTime object with the delay the departure had before the change
+   */
+  @Override
+  public void delayChanged(TrainDeparture departure, LocalTime oldDelay) {
+    int row = rowOf(departure);
+    if (row != NONE) {
+      unlinkActual(row);
+      delayMinutes[row] = (short) departure.getDelayMinutes();
+      linkActual(row);
+    }
+  }
+
+  /**
+   * Makes headings for the departures, then uses toString() on a view of each departure
+   * in time order and appends it on a new line.
+   *
+   * @return String representing this class
+   */
+  @Override
+  public String toString() {
+    StringBuilder temp = new StringBuilder(TrainDepartureRegister.HEADINGS);
+    for (TrainDeparture departure : sortByTime()) {
+      temp.append("\n");
+      temp.append(departure.toString());
+    }
+    return temp.toString();
+  }
+}
@@ -0,0 +1,245 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The ConcurrentTrainDepartureRegister class is a TrainDepartureRegister
+ * that can be shared by several threads.
+ *
+ * <p>The departures are split into stripes by their departure time, where each stripe is a
+ * TrainDepartureRegister guarded by its own lock. Two departures can only conflict on track or
+ * line when they have the same departure time, so the conflict checks of an insert only need
+ * the lock of one stripe, and inserts at different times can run at the same time.
+ *
+ * <p>The reserved field is a concurrent set of the train numbers in use. A train number is
+ * reserved in it before the departure is inserted into its stripe, and released again if the
+ * insert fails, which makes the check of unique train numbers atomic. The trainNumbers field is
+ * a concurrent hashmap from train number to departure that searches read without locks.
+ * A departure is only put into it once it is in its stripe, while the stripe is still locked,
+ * so a search never finds a departure that is not in the register.
+ *
+ * <p>Changes made through setTrack or setDelay only lock the stripe of the departure.
+ * The methods that read more than one stripe lock all of them for reading, so that they see
+ * a consistent snapshot of the register.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class ConcurrentTrainDepartureRegister implements TramClockListener {
+  private final Set<String> reserved;
+  private final ConcurrentHashMap<String, TrainDeparture> trainNumbers;
+  private final Stripe[] stripes;
+
+  /**
+   * A TrainDepartureRegister with a lock that is also taken when
+   * one of its departures is changed.
+   */
+  private static final class Stripe extends TrainDepartureRegister {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void trackChanged(TrainDeparture departure, int oldTrack) {
+      lock.writeLock().lock();
+      try {
+        super.trackChanged(departure, oldTrack);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    @Override
+    public void delayChanged(TrainDeparture departure, LocalTime oldDelay) {
+      lock.writeLock().lock();
+      try {
+        super.delayChanged(departure, oldDelay);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * A constructor that uses four stripes per available processor.
+   */
+  public ConcurrentTrainDepartureRegister() {
+    this(Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * A constructor that initializes the register with the given number of stripes.
+   *
+   * @param stripeCount A positive integer with the number of stripes
+   * @throws IllegalArgumentException if stripeCount is not positive
+   */
+  public ConcurrentTrainDepartureRegister(int stripeCount) {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException("The number of stripes must be a positive integer!");
+    }
+    reserved = ConcurrentHashMap.newKeySet();
+    trainNumbers = new ConcurrentHashMap<>();
+    stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  private Stripe stripeOf(TrainDeparture departure) {
+    return stripes[departure.getDepartureMinute() % stripes.length];
+  }
+
+  /**
+   * Checks if you are allowed to add a train departure to the register, then adds it.
+   * The departure is locked while it is added, so that its track cannot change in between.
+   *
+   * @param departure A TrainDeparture object
+   * @throws IllegalArgumentException If the given TrainDeparture uses the same train number
+   *                                  of another departure that is in the register.
+   *                                  Also throws if two departures have the same departure time
+   *                                  and the same track or line.
+   */
+  public void addTrainDeparture(TrainDeparture departure) {
+    if (!reserved.add(departure.getTrainNumber())) {
+      throw new IllegalArgumentException("The train number is already being used!");
+    }
+    Stripe stripe = stripeOf(departure);
+    synchronized (departure) {
+      stripe.lock.writeLock().lock();
+      try {
+        stripe.addTrainDeparture(departure);
+        trainNumbers.put(departure.getTrainNumber(), departure);
+      } catch (IllegalArgumentException e) {
+        reserved.remove(departure.getTrainNumber());
+        throw e;
+      } finally {
+        stripe.lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Searches after the trainDeparture object with the given train number in the register,
+   * without taking any locks.
+   *
+   * @param trainNumber A string that describes the train number
+   *                    for the TrainDeparture object you want to find
+   * @return The TrainDeparture object with the given train number.
+   * @throws IllegalArgumentException if the train number is not in the register.
+   */
+  public TrainDeparture searchTrainNumber(String trainNumber) {
+    TrainDeparture departure = trainNumbers.get(trainNumber);
+    if (departure == null) {
+      throw new IllegalArgumentException("That train number is not in the register!");
+    }
+    return departure;
+  }
+
+  /**
+   * Searches after TrainDeparture objects with the given destination in every stripe,
+   * ignoring capitalization.
+   *
+   * @param destination A string that describes
+   *                    the destination of the TrainDeparture objects you want to find.
+   * @return A sorted temporary List
+   *        containing the TrainDeparture objects with the given destination.
+   * @throws IllegalArgumentException if the destination is not in the register.
+   */
+  public List<TrainDeparture> searchDestination(String destination) {
+    List<TrainDeparture> temp = new ArrayList<>();
+    lockAllForReading();
+    try {
+      for (Stripe stripe : stripes) {
+        temp.addAll(stripe.findDestination(destination));
+      }
+    } finally {
+      unlockAllForReading();
+    }
+    if (temp.isEmpty()) {
+      throw new IllegalArgumentException("That destination is not in the register!");
+    }
+    temp.sort(TrainDepartureRegister.TIME_ORDER);
+    return temp;
+  }
+
+  /**
+   * Removes expired TrainDeparture objects from each stripe, one stripe at a time,
+   * then releases their train numbers.
+   *
+   * @param clock A LocalTime object that describes the current time.
+   */
+  public void removeExpiredDepartures(LocalTime clock) {
+    for (Stripe stripe : stripes) {
+      List<TrainDeparture> expired;
+      stripe.lock.writeLock().lock();
+      try {
+        expired = stripe.pollExpiredDepartures(clock);
+      } finally {
+        stripe.lock.writeLock().unlock();
+      }
+      for (TrainDeparture departure : expired) {
+        trainNumbers.remove(departure.getTrainNumber(), departure);
+        reserved.remove(departure.getTrainNumber());
+      }
+    }
+  }
+
+  /**
+   * Makes a temporary list of a consistent snapshot of the departures and sorts it.
+   *
+   * @return A temporary ArrayList that is sorted by the objects departureTime
+   */
+  public ArrayList<TrainDeparture> sortByTime() {
+    ArrayList<TrainDeparture> temp = new ArrayList<>();
+    lockAllForReading();
+    try {
+      for (Stripe stripe : stripes) {
+        temp.addAll(stripe.getDeparturesByTime());
+      }
+    } finally {
+      unlockAllForReading();
+    }
+    temp.sort(TrainDepartureRegister.TIME_ORDER);
+    return temp;
+  }
+
+  /**
+   * Locks every stripe for reading, always in the same order.
+   */
+  private void lockAllForReading() {
+    for (Stripe stripe : stripes) {
+      stripe.lock.readLock().lock();
+    }
+  }
+
+  private void unlockAllForReading() {
+    for (int i = stripes.length - 1; i >= 0; i--) {
+      stripes[i].lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void update(LocalTime clock) {
+    removeExpiredDepartures(clock);
+  }
+
+  /**
+   * Makes headings for the departures, then uses toString() on each TrainDeparture
+   * in a sorted snapshot and appends it on a new line.
+   *
+   * @return String representing this class
+   */
+  @Override
+  public String toString() {
+    StringBuilder temp = new StringBuilder(TrainDepartureRegister.HEADINGS);
+    for (TrainDeparture departure : sortByTime()) {
+      temp.append("\n");
+      temp.append(departure.toString());
+    }
+    return temp.toString();
+  }
+}
@@ -0,0 +1,275 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+
+/**
+ * The DelayPropagator class passes the delay of a departure on to the departures that depend
+ * on it, and updates them when a delay changes.
+ *
+ * <p>A departure depends on another in two ways. A turnaround is registered when a train runs on
+ * as a later departure, which cannot leave until turnaroundMinutes after the earlier one has
+ * left. A departure also cannot leave until headwayMinutes after the departure before it on the
+ * same track has left. Both kinds of dependency go from an earlier to a later departure time,
+ * so a delay is only ever passed forward in time.
+ *
+ * <p>The primaryDelays field is a hashmap from each departure to the delay it was given from
+ * outside, by setDelay. The delay a departure has is its primary delay, or more if a departure
+ * it depends on makes it leave later. The difference is the propagated delay. When the primary
+ * delay of a departure is lowered, the propagated delays it caused are lowered again.
+ *
+ * <p>The propagator listens to the register. When a delay or a track changes, or a departure
+ * is added, only the departures that depend on it are visited, in order of departure time,
+ * and the visit stops at every departure whose delay stays the same. The propagating field is
+ * true while the propagator sets delays itself, so that it does not take those for new
+ * primary delays. A departure that expires is forgotten, and the delays it caused are kept.
+ *
+ * <p>Since the propagator sets the delays while it is being told of a change, the change
+ * listeners added after it are given the propagated delays before the delay that caused them.
+ *
+ * <p>The followOns and feeders fields are hashmaps from a departure to the turnarounds
+ * that start and end at it.
+ *
+ * <p>Like TrainDepartureRegister, the class is not thread-safe. The register and its departures
+ * must only be changed from one thread while the propagator listens to them, since it changes
+ * other departures while the departure that changed is still locked.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class DelayPropagator implements RegisterChangeListener, AutoCloseable {
+  private final TrainDepartureRegister register;
+  private final int headwayMinutes;
+  private final HashMap<TrainDeparture, Integer> primaryDelays = new HashMap<>();
+  private final HashMap<TrainDeparture, List<Turnaround>> followOns = new HashMap<>();
+  private final HashMap<TrainDeparture, List<Turnaround>> feeders = new HashMap<>();
+  private boolean propagating;
+
+  /**
+   * A train that leaves as the departure from, and then runs on as the departure to.
+   */
+  private record Turnaround(TrainDeparture from, TrainDeparture to, int minutes) {
+  }
+
+  /**
+   * A constructor that takes the delays the departures in the register already have
+   * as their primary delays, and starts listening to the register.
+   *
+   * @param register       A TrainDepartureRegister with the departures
+   * @param headwayMinutes The minutes a track must be left empty after a train has left
+   * @throws IllegalArgumentException if headwayMinutes is negative
+   */
+  public DelayPropagator(TrainDepartureRegister register, int headwayMinutes) {
+    if (headwayMinutes < 0) {
+      throw new IllegalArgumentException("The headway cannot be negative!");
+    }
+    this.register = register;
+    this.headwayMinutes = headwayMinutes;
+    for (TrainDeparture departure : register.getDeparturesByTime()) {
+      primaryDelays.put(departure, departure.getDelayMinutes());
+    }
+    register.addChangeListener(this);
+  }
+
+  /**
+   * Registers that the train of one departure runs on as a later departure, and passes
+   * the delay of the first departure on to the second.
+   *
+   * @param fromTrainNumber   A String with the train number of the first departure
+   * @param toTrainNumber     A String with the train number of the departure it runs on as
+   * @param turnaroundMinutes The least number of minutes between the two departures
+   * @throws IllegalArgumentException if a train number is not in the register,
+   *                                  turnaroundMinutes is negative, or the second departure
+   *                                  does not leave after the first
+   */
+  public void addTurnaround(String fromTrainNumber, String toTrainNumber,
+                           int turnaroundMinutes) {
+    TrainDeparture from = register.searchTrainNumber(fromTrainNumber);
+    TrainDeparture to = register.searchTrainNumber(toTrainNumber);
+    if (turnaroundMinutes < 0) {
+      throw new IllegalArgumentException("The turnaround cannot be negative!");
+    }
+    if (to.getDepartureMinute() <= from.getDepartureMinute()) {
+      throw new IllegalArgumentException("A train can only run on as a later departure!");
+    }
+    Turnaround turnaround = new Turnaround(from, to, turnaroundMinutes);
+    followOns.computeIfAbsent(from, key -> new ArrayList<>()).add(turnaround);
+    feeders.computeIfAbsent(to, key -> new ArrayList<>()).add(turnaround);
+    propagate(List.of(to));
+  }
+
+  /**
+   * Gives the delay the departure was given from outside.
+   *
+   * @param departure A TrainDeparture object in the register
+   * @return A LocalTime object with the primary delay, or the delay of the departure
+   *        if it is not in the register
+   */
+  public LocalTime getPrimaryDelay(TrainDeparture departure) {
+    return TrainDeparture.toLocalTime(
+        primaryDelays.getOrDefault(departure, departure.getDelayMinutes()));
+  }
+
+  /**
+   * Gives the part of the delay of the departure that was passed on from other departures.
+   *
+   * @param departure A TrainDeparture object in the register
+   * @return A LocalTime object with the propagated delay
+   */
+  public LocalTime getPropagatedDelay(TrainDeparture departure) {
+    int primary = primaryDelays.getOrDefault(departure, departure.getDelayMinutes());
+    return TrainDeparture.toLocalTime(Math.max(0, departure.getDelayMinutes() - primary));
+  }
+
+  /**
+   * Records the new primary delays, then updates the departures that depend on the
+   * departures that were changed. Changes made by the propagator itself are skipped.
+   *
+   * @param changes an unmodifiable List of the changes, in the order they were made
+   */
+  @Override
+  public void registerChanged(List<RegisterChange> changes) {
+    if (propagating) {
+      return;
+    }
+    List<TrainDeparture> changed = new ArrayList<>();
+    for (RegisterChange change : changes) {
+      TrainDeparture departure = change.departure();
+      switch (change.type()) {
+        case ADDED, DELAY_CHANGED -> {
+          primaryDelays.put(departure, departure.getDelayMinutes());
+          changed.add(departure);
+        }
+        case TRACK_CHANGED -> {
+          changed.add(departure);
+          if (change.oldTrack() > 0) {
+            TrainDeparture next =
+                register.getDeparturesOnTrack(change.oldTrack()).higher(departure);
+            if (next != null) {
+              changed.add(next);
+            }
+          }
+        }
+        case EXPIRED -> forget(departure);
+        default -> {
+        }
+      }
+    }
+    propagate(changed);
+  }
+
+  /**
+   * Removes the primary delay and the turnarounds of a departure that has left the register.
+   */
+  private void forget(TrainDeparture departure) {
+    primaryDelays.remove(departure);
+    List<Turnaround> from = followOns.remove(departure);
+    if (from != null) {
+      for (Turnaround turnaround : from) {
+        feeders.get(turnaround.to()).remove(turnaround);
+      }
+    }
+    List<Turnaround> to = feeders.remove(departure);
+    if (to != null) {
+      for (Turnaround turnaround : to) {
+        followOns.get(turnaround.from()).remove(turnaround);
+      }
+    }
+  }
+
+  /**
+   * Works out the delays of the changed departures and of the departures that depend on them,
+   * in order of departure time, so that a departure is only visited after every departure it
+   * depends on. The departures after a changed departure are always visited, and the departures
+   * after any other only if its delay changed.
+   *
+   * @param changed the departures that were changed
+   */
+  private void propagate(Collection<TrainDeparture> changed) {
+    PriorityQueue<TrainDeparture> queue = new PriorityQueue<>(TrainDepartureRegister.TIME_ORDER);
+    HashSet<TrainDeparture> queued = new HashSet<>();
+    for (TrainDeparture departure : changed) {
+      if (primaryDelays.containsKey(departure)) {
+        enqueue(queue, queued, departure);
+        enqueueDependants(queue, queued, departure);
+      }
+    }
+    propagating = true;
+    try {
+      while (!queue.isEmpty()) {
+        TrainDeparture departure = queue.poll();
+        queued.remove(departure);
+        int delay = requiredDelay(departure);
+        if (delay != departure.getDelayMinutes()) {
+          departure.setDelay(TrainDeparture.toLocalTime(delay));
+          enqueueDependants(queue, queued, departure);
+        }
+      }
+    } finally {
+      propagating = false;
+    }
+  }
+
+  private static void enqueue(PriorityQueue<TrainDeparture> queue,
+                              HashSet<TrainDeparture> queued, TrainDeparture departure) {
+    if (queued.add(departure)) {
+      queue.add(departure);
+    }
+  }
+
+  private void enqueueDependants(PriorityQueue<TrainDeparture> queue,
+                                 HashSet<TrainDeparture> queued, TrainDeparture departure) {
+    for (Turnaround turnaround : followOns.getOrDefault(departure, List.of())) {
+      enqueue(queue, queued, turnaround.to());
+    }
+    if (departure.getTrack() > 0) {
+      TrainDeparture next = register.getDeparturesOnTrack(departure.getTrack()).higher(departure);
+      if (next != null) {
+        enqueue(queue, queued, next);
+      }
+    }
+  }
+
+  /**
+   * Finds the delay the departure must have, which is its primary delay or the least delay that
+   * lets it leave after the departures it depends on, whichever is larger. The times are counted
+   * from the start of the day of the departure, so a delay past midnight is not wrapped around.
+   *
+   * @param departure a TrainDeparture object in the register
+   * @return the delay in minutes, at most the largest delay a departure can have
+   */
+  private int requiredDelay(TrainDeparture departure) {
+    int earliest = departure.getDepartureMinute() + primaryDelays.get(departure);
+    for (Turnaround turnaround : feeders.getOrDefault(departure, List.of())) {
+      earliest = Math.max(earliest, leaves(turnaround.from()) + turnaround.minutes());
+    }
+    if (departure.getTrack() > 0) {
+      NavigableSet<TrainDeparture> onTrack = register.getDeparturesOnTrack(departure.getTrack());
+      TrainDeparture previous = onTrack.lower(departure);
+      if (previous != null) {
+        earliest = Math.max(earliest, leaves(previous) + headwayMinutes);
+      }
+    }
+    return Math.min(earliest - departure.getDepartureMinute(),
+        TrainDeparture.MINUTES_PER_DAY - 1);
+  }
+
+  private static int leaves(TrainDeparture departure) {
+    return departure.getDepartureMinute() + departure.getDelayMinutes();
+  }
+
+  /**
+   * Stops listening to the register. The delays already passed on are kept.
+   */
+  @Override
+  public void close() {
+    register.removeChangeListener(this);
+  }
+}
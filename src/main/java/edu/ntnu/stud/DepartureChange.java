@@ -0,0 +1,42 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+
+/**
+ * A copy of one change to a TrainDepartureRegister, with the values the departure had
+ * when it was changed, given to the subscribers of a RegisterChangePublisher.
+ *
+ * <p>Unlike a RegisterChange, it does not hold the TrainDeparture object, so a subscriber
+ * on another thread never reads a departure while it is being changed, and sees the values
+ * as they were when the change was made, even if the departure has changed again since.
+ *
+ * @param type          the kind of change
+ * @param trainNumber   the train number of the departure
+ * @param departureTime a LocalTime object with the departure time of the departure
+ * @param line          the line of the departure
+ * @param destination   the destination of the departure
+ * @param track         the track the departure has after the change
+ * @param delay         a LocalTime object with the delay the departure has after the change
+ * @param oldTrack      the track the departure had before the change
+ * @param oldDelay      a LocalTime object with the delay the departure had before the change
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public record DepartureChange(RegisterChange.Type type, String trainNumber,
+                              LocalTime departureTime, String line, String destination,
+                              int track, LocalTime delay, int oldTrack, LocalTime oldDelay) {
+
+  /**
+   * Copies a change, reading the current values of its departure.
+   *
+   * @param change a RegisterChange, given to a listener while the departure is being changed
+   * @return A DepartureChange with the values of the departure
+   */
+  static DepartureChange of(RegisterChange change) {
+    TrainDeparture departure = change.departure();
+    return new DepartureChange(change.type(), departure.getTrainNumber(),
+        departure.getDepartureTime(), departure.getLine(), departure.getDestination(),
+        departure.getTrack(), departure.getDelay(), change.oldTrack(), change.oldDelay());
+  }
+}
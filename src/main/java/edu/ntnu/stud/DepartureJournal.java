@@ -0,0 +1,624 @@
+package edu.ntnu.stud;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The DepartureJournal class keeps a TrainDepartureRegister in memory and appends every change
+ * to it to a log file, so that the register can be recovered after a crash.
+ *
+ * <p>Departures are added through the journal, which listens to them for changes of track and
+ * delay, and to a TramClock for the ticks that expire departures. Each change becomes one record
+ * in the log. Recovering opens the last snapshot of the register and applies the records
+ * in the log to it. A checkpoint saves a new snapshot and starts an empty log.
+ *
+ * <p>The log starts with a header with the int MAGIC, the short VERSION and the checksum of
+ * the snapshot its records follow, or 0 if they follow an empty register. Before a checkpoint
+ * saves a new snapshot, it ends the log with a CHECKPOINT record with the checksum of the new
+ * snapshot, so that a crash before the new log is started leaves a log that says which of its
+ * records the new snapshot already holds. A log that neither follows the snapshot being
+ * recovered nor has a CHECKPOINT record for it, also when the snapshot is missing, cannot be
+ * recovered, and opening the journal fails instead of losing its changes.
+ *
+ * <p>Each record is the length of its content as an int, the CRC32 checksum of the content as
+ * an int, and then the content: the type, the time it was made in milliseconds since the epoch,
+ * and the values of the change. A record that is cut off or does not match its checksum
+ * was not finished before a crash, and it and everything after it is dropped.
+ *
+ * <p>Records are gathered in the buffer field and written to the file in groups.
+ * The syncPolicy field decides when the written records are forced to the disk. The buffer is
+ * on the heap, so with the NEVER and BATCH policies the records that are waiting in it are lost
+ * if the JVM crashes, and not only if the machine does: up to a full buffer with NEVER, and up
+ * to batchSize records, or the records since the last tick, with BATCH. Only ALWAYS keeps every
+ * change that has returned.
+ *
+ * <p>An added departure is recorded before it is added to the register. A departure changes its
+ * track or delay before the journal is told, so those changes are recorded right after they are
+ * made. Putting a record in the buffer never fails: if the buffer is full and cannot be written,
+ * the buffer grows and the writeFailed field is set, and the error is thrown once the change
+ * is in both the register and the buffer. The records are then written again by the next
+ * change, so the log never misses a change that the register has.
+ *
+ * <p>The register field is the register the changes are made to, and the channel field
+ * is the open log file.
+ *
+ * <p>Only the changes to departures that are in the register are recorded, so that a departure
+ * the register has expired on its own, for example through a clock it also listens to,
+ * is not changed in the log after it has left.
+ *
+ * <p>Like TrainDepartureRegister, the class is not thread-safe.
+ *
+ * @author Jakob Huuse
+ * @version 1.1.0
+ * @since 18.10.2026
+ */
+public class DepartureJournal implements TramClockListener, TrainDepartureListener, Closeable {
+  static final int MAGIC = 0x5444524A;
+  static final short VERSION = 1;
+  private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES;
+  private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int DEFAULT_BATCH_SIZE = 256;
+
+  private final TrainDepartureRegister register;
+  private final FileChannel channel;
+  private final SyncPolicy syncPolicy;
+  private final int batchSize;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final ByteBuffer record = ByteBuffer.allocate(BUFFER_SIZE);
+  private final CRC32 checksum = new CRC32();
+  private int unsynced;
+  private boolean writeFailed;
+
+  /**
+   * When records that have been written to the log are forced to the disk.
+   */
+  public enum SyncPolicy {
+    /**
+     * Forces every record to the disk before the change returns.
+     */
+    ALWAYS,
+    /**
+     * Forces the records in one go once batchSize of them are waiting, and at every clock tick,
+     * so that a burst of changes costs one force.
+     */
+    BATCH,
+    /**
+     * Writes records once the buffer is full and leaves it to the operating system
+     * to put them on the disk.
+     */
+    NEVER
+  }
+
+  /**
+   * The kinds of records in the log.
+   */
+  enum Type {
+    ADD, TRACK, DELAY, TICK, CHECKPOINT
+  }
+
+  /**
+   * One record of the log. The fields that do not belong to the type are empty.
+   *
+   * @param type            the kind of change
+   * @param timeMillis      the time the record was made, in milliseconds since the epoch
+   * @param trainNumber     the train number of the departure, or null for TICK
+   * @param minute          the departure time for ADD, or the clock time for TICK,
+   *                        in minutes since midnight
+   * @param delayMinutes    the delay in minutes for ADD and DELAY
+   * @param track           the track for ADD and TRACK
+   * @param line            the line for ADD
+   * @param destination     the destination for ADD
+   * @param snapshot        the checksum of the snapshot saved by the checkpoint for CHECKPOINT
+   */
+  record Entry(Type type, long timeMillis, String trainNumber, int minute, int delayMinutes,
+               int track, String line, String destination, long snapshot) {
+
+    /**
+     * Makes a new TrainDeparture object like the one that was added in an ADD record.
+     *
+     * @return A new TrainDeparture object
+     */
+    TrainDeparture newDeparture() {
+      TrainDeparture departure = track == -1
+          ? new TrainDeparture(TrainDeparture.toLocalTime(minute), line, trainNumber,
+              destination)
+          : new TrainDeparture(TrainDeparture.toLocalTime(minute), line, trainNumber,
+              destination, track);
+      if (delayMinutes != 0) {
+        departure.setDelay(TrainDeparture.toLocalTime(delayMinutes));
+      }
+      return departure;
+    }
+
+    /**
+     * Makes the change of the record in the register. An added departure is restored
+     * without the conflict checks, since it was already checked when it was recorded.
+     * A CHECKPOINT record makes no change.
+     *
+     * @param register A TrainDepartureRegister to change
+     * @throws IllegalArgumentException if the change cannot be made in the register
+     */
+    void applyTo(TrainDepartureRegister register) {
+      switch (type) {
+        case ADD -> register.restoreTrainDepartures(List.of(newDeparture()));
+        case TRACK -> register.searchTrainNumber(trainNumber).setTrack(track);
+        case DELAY -> register.searchTrainNumber(trainNumber)
+            .setDelay(TrainDeparture.toLocalTime(delayMinutes));
+        case TICK -> register.removeExpiredDepartures(TrainDeparture.toLocalTime(minute));
+        default -> {
+        }
+      }
+    }
+  }
+
+  private DepartureJournal(TrainDepartureRegister register, FileChannel channel,
+                           SyncPolicy syncPolicy, int batchSize) {
+    this.register = register;
+    this.channel = channel;
+    this.syncPolicy = syncPolicy;
+    this.batchSize = batchSize;
+    for (TrainDeparture departure : register.getDeparturesByTime()) {
+      departure.addListener(this);
+    }
+  }
+
+  /**
+   * Recovers the register from the snapshot and the log, and opens the log to add new records.
+   * With the BATCH policy, up to 256 records are forced in one go.
+   *
+   * @param snapshot   The path of the snapshot file, which does not need to exist
+   * @param logFile    The path of the log file, which does not need to exist
+   * @param syncPolicy When records are forced to the disk
+   * @return A DepartureJournal with the recovered register
+   * @throws IOException if the files cannot be read or written, or are damaged
+   */
+  public static DepartureJournal open(Path snapshot, Path logFile, SyncPolicy syncPolicy)
+      throws IOException {
+    return open(snapshot, logFile, syncPolicy, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Recovers the register from the snapshot and the log, and opens the log to add new records.
+   * If the log ends with a CHECKPOINT record for the snapshot, only the records after it
+   * are applied.
+   *
+   * @param snapshot   The path of the snapshot file, which does not need to exist
+   * @param logFile    The path of the log file, which does not need to exist
+   * @param syncPolicy When records are forced to the disk
+   * @param batchSize  The number of records forced in one go with the BATCH policy
+   * @return A DepartureJournal with the recovered register
+   * @throws IOException              if the files cannot be read or written, are damaged,
+   *                                  or the log does not follow the snapshot
+   * @throws IllegalArgumentException if batchSize is not positive
+   */
+  public static DepartureJournal open(Path snapshot, Path logFile, SyncPolicy syncPolicy,
+                                      int batchSize) throws IOException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be a positive integer!");
+    }
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    long base = 0;
+    if (Files.exists(snapshot)) {
+      register = RegisterSnapshot.load(snapshot);
+      base = RegisterSnapshot.checksum(snapshot);
+    }
+    long validBytes = 0;
+    if (Files.exists(logFile) && Files.size(logFile) >= HEADER_BYTES) {
+      ByteBuffer log = readLog(logFile);
+      List<Entry> entries = new ArrayList<>();
+      validBytes = readEntries(log, entries);
+      int first = log.getLong(Integer.BYTES + Short.BYTES) == base ? 0 : -1;
+      for (int i = 0; i < entries.size(); i++) {
+        if (entries.get(i).type() == Type.CHECKPOINT && entries.get(i).snapshot() == base) {
+          first = i + 1;
+        }
+      }
+      if (first == -1) {
+        throw new IOException("The journal does not follow the snapshot!");
+      }
+      try {
+        for (Entry entry : entries.subList(first, entries.size())) {
+          entry.applyTo(register);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IOException("The journal does not match the snapshot!", e);
+      }
+    }
+    FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    DepartureJournal journal = new DepartureJournal(register, channel, syncPolicy, batchSize);
+    if (validBytes == 0) {
+      journal.startLog(base);
+    } else {
+      channel.truncate(validBytes);
+      channel.position(validBytes);
+    }
+    return journal;
+  }
+
+  /**
+   * Reads every finished record in a log, no matter which snapshot it follows.
+   *
+   * @param logFile The path of the log file
+   * @return A List of the records, in the order they were made
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  static List<Entry> read(Path logFile) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    readEntries(readLog(logFile), entries);
+    return entries;
+  }
+
+  /**
+   * Reads a whole log file and checks its header.
+   *
+   * @param logFile The path of the log file
+   * @return A buffer with the whole file
+   * @throws IOException if the file cannot be read, is not a journal or has another version
+   */
+  private static ByteBuffer readLog(Path logFile) throws IOException {
+    ByteBuffer log;
+    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("The journal is too large!");
+      }
+      log = ByteBuffer.allocate((int) channel.size());
+      while (log.hasRemaining() && channel.read(log) >= 0) {
+        // Keep reading until the buffer is full.
+      }
+      log.flip();
+    }
+    if (log.remaining() < HEADER_BYTES || log.getInt(0) != MAGIC) {
+      throw new IOException("The file is not a departure journal!");
+    }
+    short version = log.getShort(Integer.BYTES);
+    if (version != VERSION) {
+      throw new IOException("Cannot read journals of version " + version + "!");
+    }
+    return log;
+  }
+
+  /**
+   * Reads records after the header until the end of the log or the first record that was not
+   * finished.
+   *
+   * @param log     A buffer with the whole log
+   * @param entries A List to add the records to
+   * @return The number of bytes from the start of the log to the end of the last finished record
+   */
+  private static long readEntries(ByteBuffer log, List<Entry> entries) {
+    CRC32 checksum = new CRC32();
+    int position = HEADER_BYTES;
+    while (log.limit() - position >= RECORD_HEADER_BYTES) {
+      int length = log.getInt(position);
+      if (length < 1 || length > log.limit() - position - RECORD_HEADER_BYTES) {
+        break;
+      }
+      ByteBuffer content = log.slice(position + RECORD_HEADER_BYTES, length);
+      checksum.reset();
+      checksum.update(content.duplicate());
+      if ((int) checksum.getValue() != log.getInt(position + Integer.BYTES)) {
+        break;
+      }
+      try {
+        entries.add(decode(content));
+      } catch (RuntimeException e) {
+        break;
+      }
+      position += RECORD_HEADER_BYTES + length;
+    }
+    return position;
+  }
+
+  private static Entry decode(ByteBuffer content) {
+    Type type = Type.values()[content.get()];
+    long timeMillis = content.getLong();
+    return switch (type) {
+      case ADD -> {
+        int minute = content.getShort();
+        int delayMinutes = content.getShort();
+        int track = content.getInt();
+        yield new Entry(type, timeMillis, getString(content), minute, delayMinutes, track,
+            getString(content), getString(content), 0);
+      }
+      case TRACK -> new Entry(type, timeMillis, getString(content), 0, 0, content.getInt(),
+          null, null, 0);
+      case DELAY -> new Entry(type, timeMillis, getString(content), 0, content.getShort(), -1,
+          null, null, 0);
+      case TICK -> new Entry(type, timeMillis, null, content.getShort(), 0, -1, null, null, 0);
+      default -> new Entry(type, timeMillis, null, 0, 0, -1, null, null, content.getLong());
+    };
+  }
+
+  private static String getString(ByteBuffer content) {
+    byte[] bytes = new byte[content.getShort() & 0xFFFF];
+    content.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public TrainDepartureRegister getRegister() {
+    return register;
+  }
+
+  /**
+   * Checks the TrainDeparture object, records it, then adds it to the register
+   * and listens to it.
+   *
+   * @param departure A TrainDeparture object
+   * @throws IllegalArgumentException if the register does not allow the departure.
+   *                                  Nothing is recorded if it throws.
+   * @throws UncheckedIOException     if the record cannot be written. The departure is
+   *                                  still added, and its record is written later.
+   */
+  public void addTrainDeparture(TrainDeparture departure) {
+    register.checkTrainDeparture(departure);
+    appendAdd(departure);
+    register.addTrainDeparture(departure);
+    departure.addListener(this);
+    syncIfDue();
+  }
+
+  /**
+   * Checks all the TrainDeparture objects, records them, then adds them to the register
+   * and listens to them.
+   *
+   * @param batch A Collection of TrainDeparture objects
+   * @throws TimetableImportException if the register does not allow any of the departures.
+   *                                  Nothing is added or recorded if it throws.
+   * @throws UncheckedIOException     if the records cannot be written. The departures are
+   *                                  still added, and their records are written later.
+   */
+  public void addTrainDepartures(Collection<TrainDeparture> batch) {
+    register.checkTrainDepartures(batch);
+    for (TrainDeparture departure : batch) {
+      appendAdd(departure);
+    }
+    register.addTrainDepartures(batch);
+    for (TrainDeparture departure : batch) {
+      departure.addListener(this);
+    }
+    syncIfDue();
+  }
+
+  private void appendAdd(TrainDeparture departure) {
+    startRecord(Type.ADD).putShort((short) departure.getDepartureMinute())
+        .putShort((short) departure.getDelayMinutes())
+        .putInt(departure.getTrack());
+    putString(departure.getTrainNumber());
+    putString(departure.getLine());
+    putString(departure.getDestination());
+    append();
+  }
+
+  /**
+   * Records the tick, then removes the expired departures from the register
+   * and stops listening to them. With the BATCH policy, the waiting records are forced.
+   *
+   * @param clock a LocalTime object with the newly set time
+   * @throws UncheckedIOException if the record cannot be written
+   */
+  @Override
+  public void update(LocalTime clock) {
+    startRecord(Type.TICK).putShort((short) TrainDeparture.toMinuteOfDay(clock));
+    append();
+    for (TrainDeparture departure : register.pollExpiredDepartures(clock)) {
+      departure.removeListener(this);
+    }
+    if (syncPolicy == SyncPolicy.BATCH) {
+      sync();
+    } else {
+      syncIfDue();
+    }
+  }
+
+  /**
+   * Records the new track of the departure, if it is still in the register.
+   * A departure that has left the register is no longer listened to.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldTrack  the track the departure had before the change
+   * @throws UncheckedIOException if the record cannot be written
+   */
+  @Override
+  public void trackChanged(TrainDeparture departure, int oldTrack) {
+    if (!register.contains(departure)) {
+      departure.removeListener(this);
+      return;
+    }
+    startRecord(Type.TRACK);
+    putString(departure.getTrainNumber());
+    record.putInt(departure.getTrack());
+    append();
+    syncIfDue();
+  }
+
+  /**
+   * Records the new delay of the departure, if it is still in the register.
+   * A departure that has left the register is no longer listened to.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldDelay  a LocalTime object with the delay the departure had before the change
+   * @throws UncheckedIOException if the record cannot be written
+   */
+  @Override
+  public void delayChanged(TrainDeparture departure, LocalTime oldDelay) {
+    if (!register.contains(departure)) {
+      departure.removeListener(this);
+      return;
+    }
+    startRecord(Type.DELAY);
+    putString(departure.getTrainNumber());
+    record.putShort((short) departure.getDelayMinutes());
+    append();
+    syncIfDue();
+  }
+
+  private ByteBuffer startRecord(Type type) {
+    record.clear();
+    return record.put((byte) type.ordinal()).putLong(System.currentTimeMillis());
+  }
+
+  private void putString(String string) {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    record.putShort((short) bytes.length).put(bytes);
+  }
+
+  /**
+   * Moves the finished record into the buffer. If the buffer is full, it is written first,
+   * and if that fails, the buffer grows instead, so that the record is never lost.
+   */
+  private void append() {
+    record.flip();
+    checksum.reset();
+    checksum.update(record.duplicate());
+    int length = RECORD_HEADER_BYTES + record.remaining();
+    if (buffer.remaining() < length) {
+      try {
+        write();
+      } catch (UncheckedIOException e) {
+        // The failure is thrown by syncIfDue, once the change has been made.
+      }
+      if (buffer.remaining() < length) {
+        buffer = ByteBuffer.allocate(buffer.capacity() * 2 + length).put(buffer.flip());
+      }
+    }
+    buffer.putInt(record.remaining()).putInt((int) checksum.getValue()).put(record);
+    unsynced++;
+  }
+
+  /**
+   * Writes or forces the buffer as the sync policy says, and writes it again if an earlier
+   * write failed.
+   */
+  private void syncIfDue() {
+    if (syncPolicy == SyncPolicy.ALWAYS
+        || syncPolicy == SyncPolicy.BATCH && unsynced >= batchSize) {
+      sync();
+    } else if (writeFailed) {
+      write();
+    }
+  }
+
+  /**
+   * Writes the buffered records to the file, without forcing them to the disk.
+   * The records that could not be written are kept in the buffer.
+   */
+  private void write() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      writeFailed = false;
+    } catch (IOException e) {
+      writeFailed = true;
+      throw new UncheckedIOException(e);
+    } finally {
+      buffer.compact();
+    }
+  }
+
+  /**
+   * Writes the buffered records to the file and forces them to the disk.
+   */
+  private void sync() {
+    write();
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    unsynced = 0;
+  }
+
+  /**
+   * Writes every buffered record to the file. Unless the sync policy is NEVER,
+   * they are also forced to the disk.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  public void flush() throws IOException {
+    try {
+      if (syncPolicy == SyncPolicy.NEVER) {
+        write();
+      } else {
+        sync();
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Saves a snapshot of the register and starts an empty log that follows it.
+   * The log is first ended with a CHECKPOINT record for the new snapshot and forced,
+   * so that if the journal crashes after the snapshot is saved but before the log is emptied,
+   * the records of the old log are skipped when recovering.
+   *
+   * @param snapshot The path to save the snapshot to, which should be the one given to open
+   * @throws IOException if the snapshot or the log cannot be written
+   */
+  public void checkpoint(Path snapshot) throws IOException {
+    ByteBuffer saved = RegisterSnapshot.encode(register);
+    long next = saved.getLong(saved.limit() - Long.BYTES);
+    startRecord(Type.CHECKPOINT).putLong(next);
+    append();
+    try {
+      sync();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    RegisterSnapshot.write(saved, snapshot);
+    startLog(next);
+  }
+
+  /**
+   * Empties the log and writes a header that says which snapshot it follows.
+   *
+   * @param base The checksum of the snapshot, or 0 for an empty register
+   * @throws IOException if the log cannot be written
+   */
+  private void startLog(long base) throws IOException {
+    channel.truncate(0);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+        .putInt(MAGIC).putShort(VERSION).putLong(base).flip();
+    channel.position(0);
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+    channel.force(true);
+  }
+
+  /**
+   * Writes and forces the buffered records, stops listening to the departures
+   * and closes the log.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      sync();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      for (TrainDeparture departure : register.getDeparturesByTime()) {
+        departure.removeListener(this);
+      }
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package edu.ntnu.stud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts recorded times in buckets that grow with the time,
+ * so that it uses the same small amount of memory for nanoseconds and for minutes.
+ *
+ * <p>Times below 32 have a bucket each. Above that, every power of two is split into
+ * 16 buckets of the same width, so a time is never off by more than one sixteenth.
+ * The counts field holds the number of times in each bucket.
+ *
+ * <p>The count, total and max fields are the number of recorded times, their sum and
+ * the largest of them. Every field can be updated from many threads at once.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+  private static final int BUCKETS =
+      (Long.SIZE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+  /**
+   * Finds the bucket of a time.
+   *
+   * @param value A time that is not negative
+   * @return The index of the bucket
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+    return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /**
+   * Finds the largest time that falls in a bucket.
+   *
+   * @param bucket The index of the bucket
+   * @return The largest time in the bucket
+   */
+  static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / HALF_SUB_BUCKETS - 1;
+    long subBucket = bucket % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * Records a time. Negative times are recorded as 0.
+   *
+   * @param value The time to record
+   */
+  public void record(long value) {
+    long time = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(time));
+    count.increment();
+    total.add(time);
+    max.accumulate(time);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Calculates the mean of the recorded times.
+   *
+   * @return The mean, or 0 if nothing has been recorded
+   */
+  public double getMean() {
+    long recorded = count.sum();
+    return recorded == 0 ? 0 : (double) total.sum() / recorded;
+  }
+
+  /**
+   * Finds the time that the given percentage of the recorded times are at or below.
+   * It is rounded up to the end of its bucket, but is never more than the largest time.
+   *
+   * @param percentile A number from 0 to 100
+   * @return The time at the percentile, or 0 if nothing has been recorded
+   * @throws IllegalArgumentException if percentile is not from 0 to 100
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("The percentile must be from 0 to 100!");
+    }
+    long recorded = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      recorded += counts.get(i);
+    }
+    long wanted = Math.max(1, (long) Math.ceil(recorded * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= wanted) {
+        return Math.min(highestValueIn(i), max.get());
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Forgets every recorded time.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    total.reset();
+    max.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + " mean=" + Math.round(getMean())
+        + " p50=" + getValueAtPercentile(50) + " p99=" + getValueAtPercentile(99)
+        + " max=" + getMax();
+  }
+}
@@ -0,0 +1,218 @@
+package edu.ntnu.stud;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The PartitionedTrainDepartureRegister class keeps the departures of many stations over many
+ * days, and can be shared by several threads.
+ *
+ * <p>The stations field is a concurrent hashmap from the name of a station to its shard.
+ * A shard has a TrainDepartureRegister for each service day, called a partition, in a skip list
+ * ordered by date. Each shard has its own lock, which is also taken when one of its departures
+ * is changed, so different stations are changed at the same time without waiting for each other.
+ *
+ * <p>The register listens to a RollingTramClock. At each tick, the expired departures are
+ * removed from the partition of the current day and the partitions of the days before it.
+ * A partition counts the actual departure times from the start of its own day without wrapping
+ * around at midnight, so a train delayed past midnight stays in the partition of its service day
+ * until it has left. A partition of a past day is dropped once its last departure has left.
+ * Once the clock has passed LAST_MINUTE of a day, the latest a departure of that day can leave
+ * with the largest delay, the partition is dropped without removing its departures one by one,
+ * since all of them have left. The stations are updated in parallel.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.2
+ * @since 18.10.2026
+ */
+public class PartitionedTrainDepartureRegister implements RollingClockListener {
+  private static final long PARALLELISM_THRESHOLD = 2;
+  private static final int LAST_MINUTE = 2 * (TrainDeparture.MINUTES_PER_DAY - 1);
+  private final ConcurrentHashMap<String, Station> stations = new ConcurrentHashMap<>();
+
+  /**
+   * The shard of one station, with a partition for each service day and a lock
+   * that guards all of them.
+   */
+  private static final class Station {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentSkipListMap<LocalDate, Partition> days =
+        new ConcurrentSkipListMap<>();
+
+    private void update(LocalDateTime clock) {
+      lock.lock();
+      try {
+        LocalDate today = clock.toLocalDate();
+        Iterator<Map.Entry<LocalDate, Partition>> past =
+            days.headMap(today, true).entrySet().iterator();
+        while (past.hasNext()) {
+          Map.Entry<LocalDate, Partition> day = past.next();
+          long minutes = ChronoUnit.MINUTES.between(day.getKey().atStartOfDay(), clock);
+          if (minutes > LAST_MINUTE) {
+            past.remove();
+            continue;
+          }
+          day.getValue().pollExpiredDepartures((int) minutes);
+          if (day.getKey().isBefore(today) && day.getValue().getDeparturesByTime().isEmpty()) {
+            past.remove();
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * A TrainDepartureRegister for one day of a station, that takes the lock of the station
+   * when one of its departures is changed.
+   */
+  private static final class Partition extends TrainDepartureRegister {
+    private final Station station;
+
+    private Partition(Station station) {
+      super(false);
+      this.station = station;
+    }
+
+    @Override
+    public void trackChanged(TrainDeparture departure, int oldTrack) {
+      station.lock.lock();
+      try {
+        super.trackChanged(departure, oldTrack);
+      } finally {
+        station.lock.unlock();
+      }
+    }
+
+    @Override
+    public void delayChanged(TrainDeparture departure, LocalTime oldDelay) {
+      station.lock.lock();
+      try {
+        super.delayChanged(departure, oldDelay);
+      } finally {
+        station.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Checks if you are allowed to add a train departure to the partition of the station and day,
+   * then adds it. The train number only has to be unique within the partition, since the same
+   * train runs every day. The departure is locked while it is added, so that its track cannot
+   * change in between.
+   *
+   * @param station   A String with the name of the station
+   * @param day       A LocalDate object with the service day of the departure
+   * @param departure A TrainDeparture object
+   * @throws IllegalArgumentException If the given TrainDeparture uses the same train number
+   *                                  of another departure in the partition.
+   *                                  Also throws if two departures have the same departure time
+   *                                  and the same track or line.
+   */
+  public void addTrainDeparture(String station, LocalDate day, TrainDeparture departure) {
+    Station shard = stations.computeIfAbsent(station, key -> new Station());
+    synchronized (departure) {
+      shard.lock.lock();
+      try {
+        shard.days.computeIfAbsent(day, key -> new Partition(shard))
+            .addTrainDeparture(departure);
+      } finally {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Searches after the TrainDeparture object with the given train number
+   * in the partition of the station and day.
+   *
+   * @param station     A String with the name of the station
+   * @param day         A LocalDate object with the service day
+   * @param trainNumber A string that describes the train number
+   * @return The TrainDeparture object with the given train number.
+   * @throws IllegalArgumentException if the train number is not in the partition.
+   */
+  public TrainDeparture searchTrainNumber(String station, LocalDate day, String trainNumber) {
+    Station shard = stations.get(station);
+    if (shard == null) {
+      throw new IllegalArgumentException("That train number is not in the register!");
+    }
+    shard.lock.lock();
+    try {
+      Partition partition = shard.days.get(day);
+      if (partition == null) {
+        throw new IllegalArgumentException("That train number is not in the register!");
+      }
+      return partition.searchTrainNumber(trainNumber);
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Makes a temporary list of the departures of the station on the day,
+   * sorted by departure time.
+   *
+   * @param station A String with the name of the station
+   * @param day     A LocalDate object with the service day
+   * @return A temporary ArrayList sorted by departure time, which is empty
+   *        if the station has no departures that day
+   */
+  public ArrayList<TrainDeparture> sortByTime(String station, LocalDate day) {
+    Station shard = stations.get(station);
+    if (shard == null) {
+      return new ArrayList<>();
+    }
+    shard.lock.lock();
+    try {
+      Partition partition = shard.days.get(day);
+      return partition == null ? new ArrayList<>() : partition.sortByTime();
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Gives the names of the stations with departures.
+   *
+   * @return A temporary NavigableSet of the names of the stations, in alphabetical order
+   */
+  public NavigableSet<String> getStations() {
+    return new TreeSet<>(stations.keySet());
+  }
+
+  /**
+   * Gives the service days a station has a partition for.
+   *
+   * @param station A String with the name of the station
+   * @return A temporary List of the days, in order
+   */
+  public List<LocalDate> getDays(String station) {
+    Station shard = stations.get(station);
+    return shard == null ? List.of() : new ArrayList<>(shard.days.keySet());
+  }
+
+  /**
+   * Removes the expired departures of the current day and the days before it, and drops the
+   * partitions of past days that have no departures left or that the clock has passed the last
+   * minute of, for every station in parallel.
+   *
+   * @param clock a LocalDateTime object with the newly set date and time
+   */
+  @Override
+  public void update(LocalDateTime clock) {
+    stations.forEachValue(PARALLELISM_THRESHOLD, station -> station.update(clock));
+  }
+}
@@ -0,0 +1,40 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+
+/**
+ * One change to a TrainDepartureRegister, given to its RegisterChangeListener objects.
+ *
+ * <p>The old track and old delay are the values the departure had before the change,
+ * so that a board can find where it showed the departure. For an added or expired departure
+ * they are the values it has.
+ *
+ * @param type      the kind of change
+ * @param departure the TrainDeparture object that was changed
+ * @param oldTrack  the track the departure had before the change
+ * @param oldDelay  a LocalTime object with the delay the departure had before the change
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public record RegisterChange(Type type, TrainDeparture departure, int oldTrack,
+                             LocalTime oldDelay) {
+
+  /**
+   * The kinds of changes to a register.
+   */
+  public enum Type {
+    ADDED, EXPIRED, DELAY_CHANGED, TRACK_CHANGED
+  }
+
+  /**
+   * Makes a change where the departure keeps its track and delay.
+   *
+   * @param type      the kind of change
+   * @param departure the TrainDeparture object that was added or expired
+   * @return A RegisterChange with the current track and delay of the departure
+   */
+  static RegisterChange of(Type type, TrainDeparture departure) {
+    return new RegisterChange(type, departure, departure.getTrack(), departure.getDelay());
+  }
+}
@@ -0,0 +1,23 @@
+package edu.ntnu.stud;
+
+import java.util.List;
+
+/**
+ * Listener interface for the changes to a TrainDepartureRegister.
+ *
+ * <p>The changes are given in batches. Everything one call to the register changes, like
+ * adding a batch of departures or removing the expired departures at a clock tick,
+ * is given in one batch, after the register has been changed.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public interface RegisterChangeListener {
+  /**
+   * Called after the register has been changed.
+   *
+   * @param changes an unmodifiable List of the changes, in the order they were made
+   */
+  public void registerChanged(List<RegisterChange> changes);
+}
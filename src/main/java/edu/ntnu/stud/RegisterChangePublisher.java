@@ -0,0 +1,181 @@
+package edu.ntnu.stud;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RegisterChangePublisher class gives the batches of changes to a TrainDepartureRegister
+ * to Flow subscribers, like displays that are drawn on their own threads.
+ *
+ * <p>The changes are copied into DepartureChange objects before they are published, so the
+ * subscribers never see the TrainDeparture objects themselves, which are changed on the thread
+ * of the register.
+ *
+ * <p>The publisher field is a SubmissionPublisher that keeps a buffer for each subscriber and
+ * gives it the batches on the executor, as fast as the subscriber requests them. A batch is
+ * published while the departure that changed is locked, so the publisher never waits for a
+ * subscriber. When the buffer of a subscriber is full, the batch cannot be given to it, and is
+ * counted in the droppedBatches field. Since the subscriber would no longer be able to follow
+ * the register, it is given onError with an IllegalStateException instead of its next batch,
+ * and its subscription is cancelled. A display that is told this should be drawn again from
+ * the register and subscribe again.
+ *
+ * <p>The register field is the register the publisher listens to.
+ *
+ * @author Jakob Huuse
+ * @version 1.2.0
+ * @since 18.10.2026
+ */
+public class RegisterChangePublisher
+    implements RegisterChangeListener, Flow.Publisher<List<DepartureChange>>, AutoCloseable {
+  private final TrainDepartureRegister register;
+  private final SubmissionPublisher<List<DepartureChange>> publisher;
+  private final AtomicLong droppedBatches = new AtomicLong();
+
+  /**
+   * A constructor that starts listening to the register, using the common pool
+   * and buffers of Flow.defaultBufferSize() batches.
+   *
+   * @param register A TrainDepartureRegister to publish the changes of
+   */
+  public RegisterChangePublisher(TrainDepartureRegister register) {
+    this(register, new SubmissionPublisher<>());
+  }
+
+  /**
+   * A constructor that starts listening to the register.
+   *
+   * @param register   A TrainDepartureRegister to publish the changes of
+   * @param executor   An Executor the subscribers are given the batches on
+   * @param bufferSize The largest number of batches waiting for each subscriber
+   * @throws IllegalArgumentException if bufferSize is not positive
+   */
+  public RegisterChangePublisher(TrainDepartureRegister register, Executor executor,
+                                 int bufferSize) {
+    this(register, new SubmissionPublisher<>(executor, bufferSize));
+  }
+
+  private RegisterChangePublisher(TrainDepartureRegister register,
+                                  SubmissionPublisher<List<DepartureChange>> publisher) {
+    this.register = register;
+    this.publisher = publisher;
+    register.addChangeListener(this);
+  }
+
+  /**
+   * Passes the batches on to a subscriber until a batch could not be given to it,
+   * and then ends its subscription with onError.
+   *
+   * <p>The missed field is set by the publisher when the buffer of the subscriber was full.
+   * The subscriber is told on the thread that gives it its batches, so that it is never
+   * called from two threads at once.
+   */
+  private static final class Tracked implements Flow.Subscriber<List<DepartureChange>> {
+    private final Flow.Subscriber<? super List<DepartureChange>> subscriber;
+    private final AtomicBoolean missed = new AtomicBoolean();
+    private Flow.Subscription subscription;
+    private boolean failed;
+
+    private Tracked(Flow.Subscriber<? super List<DepartureChange>> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscriber.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<DepartureChange> changes) {
+      if (!failed && !failIfMissed()) {
+        subscriber.onNext(changes);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      if (!failed) {
+        failed = true;
+        subscriber.onError(throwable);
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      if (!failed && !failIfMissed()) {
+        subscriber.onComplete();
+      }
+    }
+
+    private boolean failIfMissed() {
+      if (!missed.get()) {
+        return false;
+      }
+      failed = true;
+      subscription.cancel();
+      subscriber.onError(new IllegalStateException(
+          "Changes to the register were missed, so it must be read again!"));
+      return true;
+    }
+  }
+
+  /**
+   * Adds a subscriber, which is ended with onError if it ever misses a batch.
+   *
+   * @param subscriber the subscriber to give the batches to
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super List<DepartureChange>> subscriber) {
+    publisher.subscribe(new Tracked(subscriber));
+  }
+
+  /**
+   * Copies the batch and gives it to every subscriber with room for it in its buffer,
+   * without waiting for the others. The subscribers without room are marked as having missed
+   * a batch.
+   *
+   * @param changes an unmodifiable List of the changes, in the order they were made
+   */
+  @Override
+  public void registerChanged(List<RegisterChange> changes) {
+    List<DepartureChange> copies = new ArrayList<>(changes.size());
+    for (RegisterChange change : changes) {
+      copies.add(DepartureChange.of(change));
+    }
+    publisher.offer(Collections.unmodifiableList(copies), (subscriber, batch) -> {
+      ((Tracked) subscriber).missed.set(true);
+      droppedBatches.incrementAndGet();
+      return false;
+    });
+  }
+
+  public int getNumberOfSubscribers() {
+    return publisher.getNumberOfSubscribers();
+  }
+
+  /**
+   * Gives the number of times a batch could not be given to a subscriber with a full buffer.
+   *
+   * @return The number of dropped batches, counted once for each subscriber that missed them
+   */
+  public long getDroppedBatches() {
+    return droppedBatches.get();
+  }
+
+  /**
+   * Stops listening to the register, and completes the subscribers
+   * once they have been given the batches already published.
+   */
+  @Override
+  public void close() {
+    register.removeChangeListener(this);
+    publisher.close();
+  }
+}
@@ -0,0 +1,234 @@
+package edu.ntnu.stud;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The RegisterMetrics class collects how often and how fast a TrainDepartureRegister and
+ * a TramClock do their work. It is given to them with setMetrics, and until then they measure
+ * nothing.
+ *
+ * <p>The addTimes, searchTimes and expiryTimes fields are histograms of the time in nanoseconds
+ * that adding a departure, searching by train number or destination, and removing expired
+ * departures took. The expiredDepartures field counts the departures that have expired,
+ * and the maxExpiredPerTick field is the most departures that expired at once.
+ *
+ * <p>The dispatchTimes field is a histogram of the time the clock took to update all its
+ * listeners, and the listenerTimes field is an identity hashmap with a histogram for each
+ * listener of the clock. A histogram is removed when its listener is removed from the clock,
+ * so listeners that come and go do not leave their histograms behind. The listeners are named
+ * when the histograms are read.
+ *
+ * <p>The registerSize field gives the number of departures in the register the metrics
+ * were given to.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class RegisterMetrics implements RegisterMetricsMBean {
+  private final LatencyHistogram addTimes = new LatencyHistogram();
+  private final LatencyHistogram searchTimes = new LatencyHistogram();
+  private final LatencyHistogram expiryTimes = new LatencyHistogram();
+  private final LongAdder expiredDepartures = new LongAdder();
+  private final LongAccumulator maxExpiredPerTick = new LongAccumulator(Long::max, 0);
+  private final LatencyHistogram dispatchTimes = new LatencyHistogram();
+  private final Map<TramClockListener, LatencyHistogram> listenerTimes =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+  private volatile IntSupplier registerSize = () -> 0;
+
+  void setRegisterSize(IntSupplier registerSize) {
+    this.registerSize = registerSize;
+  }
+
+  void recordAdd(long nanos) {
+    addTimes.record(nanos);
+  }
+
+  void recordSearch(long nanos) {
+    searchTimes.record(nanos);
+  }
+
+  void recordExpiry(long nanos, int expired) {
+    expiryTimes.record(nanos);
+    expiredDepartures.add(expired);
+    maxExpiredPerTick.accumulate(expired);
+  }
+
+  void recordDispatch(long nanos) {
+    dispatchTimes.record(nanos);
+  }
+
+  /**
+   * Gives the histogram for the time a listener of the clock takes to be updated.
+   *
+   * @param listener A listener of the clock
+   * @return The LatencyHistogram of the listener
+   */
+  LatencyHistogram listenerTimes(TramClockListener listener) {
+    return listenerTimes.computeIfAbsent(listener, key -> new LatencyHistogram());
+  }
+
+  /**
+   * Removes the histogram of a listener that has been removed from the clock.
+   *
+   * @param listener A listener that was removed from the clock
+   */
+  void removeListenerTimes(TramClockListener listener) {
+    listenerTimes.remove(listener);
+  }
+
+  public LatencyHistogram getAddTimes() {
+    return addTimes;
+  }
+
+  public LatencyHistogram getSearchTimes() {
+    return searchTimes;
+  }
+
+  public LatencyHistogram getExpiryTimes() {
+    return expiryTimes;
+  }
+
+  public LatencyHistogram getDispatchTimes() {
+    return dispatchTimes;
+  }
+
+  /**
+   * Gives the histograms of the listeners of the clock, by name. A listener is named by its
+   * class and identity hash code, like Object.toString(), with a number added if two listeners
+   * would get the same name.
+   *
+   * @return A temporary Map from the name of each listener to its LatencyHistogram,
+   *        in the order of the names
+   */
+  public Map<String, LatencyHistogram> getListenerTimes() {
+    TreeMap<String, LatencyHistogram> named = new TreeMap<>();
+    synchronized (listenerTimes) {
+      for (Map.Entry<TramClockListener, LatencyHistogram> listener : listenerTimes.entrySet()) {
+        String name = listener.getKey().getClass().getSimpleName() + "@"
+            + Integer.toHexString(System.identityHashCode(listener.getKey()));
+        String unique = name;
+        for (int number = 2; named.containsKey(unique); number++) {
+          unique = name + "#" + number;
+        }
+        named.put(unique, listener.getValue());
+      }
+    }
+    return named;
+  }
+
+  @Override
+  public int getRegisterSize() {
+    return registerSize.getAsInt();
+  }
+
+  @Override
+  public long getAddCount() {
+    return addTimes.getCount();
+  }
+
+  @Override
+  public long getAddP99Nanos() {
+    return addTimes.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getSearchCount() {
+    return searchTimes.getCount();
+  }
+
+  @Override
+  public long getSearchP99Nanos() {
+    return searchTimes.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getExpiryCount() {
+    return expiryTimes.getCount();
+  }
+
+  @Override
+  public long getExpiryP99Nanos() {
+    return expiryTimes.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getExpiredDepartures() {
+    return expiredDepartures.sum();
+  }
+
+  @Override
+  public long getMaxExpiredPerTick() {
+    return maxExpiredPerTick.get();
+  }
+
+  @Override
+  public long getDispatchCount() {
+    return dispatchTimes.getCount();
+  }
+
+  @Override
+  public long getDispatchP99Nanos() {
+    return dispatchTimes.getValueAtPercentile(99);
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server, so that they can be read over JMX.
+   *
+   * @param name A name that tells these metrics apart from others
+   * @return The ObjectName the metrics were registered with
+   * @throws JMException if the name is not valid or is already registered
+   */
+  public ObjectName registerMBean(String name) throws JMException {
+    ObjectName objectName =
+        new ObjectName("edu.ntnu.stud:type=RegisterMetrics,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+  @Override
+  public String dump() {
+    StringBuilder text = new StringBuilder();
+    text.append("register.size ").append(getRegisterSize()).append('\n');
+    text.append("register.add.nanos ").append(addTimes).append('\n');
+    text.append("register.search.nanos ").append(searchTimes).append('\n');
+    text.append("register.expiry.nanos ").append(expiryTimes).append('\n');
+    text.append("register.expired ").append(getExpiredDepartures())
+        .append(" maxPerTick=").append(getMaxExpiredPerTick()).append('\n');
+    text.append("clock.dispatch.nanos ").append(dispatchTimes).append('\n');
+    for (Map.Entry<String, LatencyHistogram> listener : getListenerTimes().entrySet()) {
+      text.append("clock.listener.nanos ").append(listener.getKey()).append(' ')
+          .append(listener.getValue()).append('\n');
+    }
+    return text.toString();
+  }
+
+  @Override
+  public void reset() {
+    addTimes.reset();
+    searchTimes.reset();
+    expiryTimes.reset();
+    expiredDepartures.reset();
+    maxExpiredPerTick.reset();
+    dispatchTimes.reset();
+    synchronized (listenerTimes) {
+      for (LatencyHistogram times : listenerTimes.values()) {
+        times.reset();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return dump();
+  }
+}
@@ -0,0 +1,45 @@
+package edu.ntnu.stud;
+
+/**
+ * Management interface of RegisterMetrics, so that the metrics can be read over JMX.
+ * The times are in nanoseconds.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public interface RegisterMetricsMBean {
+  public int getRegisterSize();
+
+  public long getAddCount();
+
+  public long getAddP99Nanos();
+
+  public long getSearchCount();
+
+  public long getSearchP99Nanos();
+
+  public long getExpiryCount();
+
+  public long getExpiryP99Nanos();
+
+  public long getExpiredDepartures();
+
+  public long getMaxExpiredPerTick();
+
+  public long getDispatchCount();
+
+  public long getDispatchP99Nanos();
+
+  /**
+   * Writes every metric as text, one per line.
+   *
+   * @return The metrics as text
+   */
+  public String dump();
+
+  /**
+   * Forgets every recorded count and time.
+   */
+  public void reset();
+}
@@ -0,0 +1,228 @@
+package edu.ntnu.stud;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The RegisterSnapshot class saves the departures of a TrainDepartureRegister to a file,
+ * and loads them again.
+ *
+ * <p>A snapshot has the following format, with numbers in big-endian byte order:
+ *
+ * <p>A header with the int MAGIC and the short VERSION.
+ *
+ * <p>A dictionary with the number of strings as an int, then each string as a short with its
+ * length in bytes followed by the string in UTF-8. The lines, train numbers and destinations
+ * of the departures are stored as ids into the dictionary.
+ *
+ * <p>The number of departures as an int, then each departure as the shorts departure minute
+ * and delay in minutes, followed by the ints track, line id, train number id and destination id.
+ *
+ * <p>Lastly, the CRC32 checksum of everything before it, as a long.
+ *
+ * <p>A snapshot is first written to a temporary file that is then moved in place of the old
+ * snapshot, so that a crash while saving does not destroy the last snapshot.
+ *
+ * @author Jakob Huuse
+ * @version 1.1.1
+ * @since 18.10.2026
+ */
+public final class RegisterSnapshot {
+  static final int MAGIC = 0x54445253;
+  static final short VERSION = 1;
+  private static final int DEPARTURE_BYTES = 2 * Short.BYTES + 4 * Integer.BYTES;
+
+  private RegisterSnapshot() {
+  }
+
+  /**
+   * Saves every departure in the register to the file.
+   *
+   * @param register A TrainDepartureRegister to save
+   * @param file     The path of the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  public static void save(TrainDepartureRegister register, Path file) throws IOException {
+    write(encode(register), file);
+  }
+
+  /**
+   * Makes a snapshot of the register in memory. The checksum of the snapshot is the last long
+   * in the buffer.
+   *
+   * @param register A TrainDepartureRegister to save
+   * @return A buffer with the whole snapshot, ready to be written
+   */
+  static ByteBuffer encode(TrainDepartureRegister register) {
+    List<TrainDeparture> departures = register.sortByTime();
+    StringDictionary dictionary = new StringDictionary();
+    int[] ids = new int[departures.size() * 3];
+    for (int i = 0; i < departures.size(); i++) {
+      TrainDeparture departure = departures.get(i);
+      ids[i * 3] = dictionary.add(departure.getLine());
+      ids[i * 3 + 1] = dictionary.add(departure.getTrainNumber());
+      ids[i * 3 + 2] = dictionary.add(departure.getDestination());
+    }
+    byte[][] strings = new byte[dictionary.size()][];
+    int size = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    for (int id = 0; id < strings.length; id++) {
+      strings[id] = dictionary.get(id).getBytes(StandardCharsets.UTF_8);
+      size += Short.BYTES + strings[id].length;
+    }
+    size += Integer.BYTES + departures.size() * DEPARTURE_BYTES + Long.BYTES;
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putShort(VERSION).putInt(strings.length);
+    for (byte[] string : strings) {
+      buffer.putShort((short) string.length).put(string);
+    }
+    buffer.putInt(departures.size());
+    for (int i = 0; i < departures.size(); i++) {
+      TrainDeparture departure = departures.get(i);
+      buffer.putShort((short) departure.getDepartureMinute())
+          .putShort((short) departure.getDelayMinutes())
+          .putInt(departure.getTrack())
+          .putInt(ids[i * 3]).putInt(ids[i * 3 + 1]).putInt(ids[i * 3 + 2]);
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(buffer.array(), 0, buffer.position());
+    buffer.putLong(checksum.getValue());
+    return buffer.flip();
+  }
+
+  /**
+   * Writes a snapshot made by encode to a temporary file, and moves it in place of the file.
+   *
+   * @param buffer A buffer with the whole snapshot
+   * @param file   The path of the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  static void write(ByteBuffer buffer, Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Loads a snapshot into a new register.
+   *
+   * @param file The path of the snapshot file
+   * @return A new TrainDepartureRegister with the departures of the snapshot
+   * @throws IOException if the file cannot be read, is not a snapshot,
+   *                     has another version or does not match its checksum
+   */
+  public static TrainDepartureRegister load(Path file) throws IOException {
+    List<TrainDeparture> departures = read(file);
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    try {
+      register.restoreTrainDepartures(departures);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("The snapshot is damaged!", e);
+    }
+    return register;
+  }
+
+  /**
+   * Reads the checksum at the end of a snapshot, without checking the rest of the file.
+   * A journal uses it to know which snapshot its records follow.
+   *
+   * @param file The path of the snapshot file
+   * @return The CRC32 checksum stored in the snapshot
+   * @throws IOException if the file cannot be read or is too short to be a snapshot
+   */
+  static long checksum(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < Integer.BYTES + Short.BYTES + Long.BYTES) {
+        throw new IOException("The file is not a register snapshot!");
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+      long position = channel.size() - Long.BYTES;
+      while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+        // Keep reading until the buffer is full.
+      }
+      return buffer.getLong(0);
+    }
+  }
+
+  /**
+   * Reads the departures of a snapshot.
+   *
+   * @param file The path of the snapshot file
+   * @return A List of new TrainDeparture objects, in time order
+   * @throws IOException if the file cannot be read, is not a snapshot,
+   *                     has another version or does not match its checksum
+   */
+  static List<TrainDeparture> read(Path file) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("The snapshot is too large!");
+      }
+      buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the buffer is full.
+      }
+      buffer.flip();
+    }
+    if (buffer.remaining() < Integer.BYTES + Short.BYTES + Long.BYTES
+        || buffer.getInt() != MAGIC) {
+      throw new IOException("The file is not a register snapshot!");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new IOException("Cannot read snapshots of version " + version + "!");
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(buffer.array(), 0, buffer.limit() - Long.BYTES);
+    if (checksum.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+      throw new IOException("The snapshot does not match its checksum!");
+    }
+
+    try {
+      String[] strings = new String[buffer.getInt()];
+      for (int id = 0; id < strings.length; id++) {
+        int length = buffer.getShort() & 0xFFFF;
+        strings[id] = new String(buffer.array(), buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+      }
+      int count = buffer.getInt();
+      List<TrainDeparture> departures = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        LocalTime departureTime = TrainDeparture.toLocalTime(buffer.getShort());
+        int delayMinutes = buffer.getShort();
+        int track = buffer.getInt();
+        String line = strings[buffer.getInt()];
+        String trainNumber = strings[buffer.getInt()];
+        String destination = strings[buffer.getInt()];
+        TrainDeparture departure = track == -1
+            ? new TrainDeparture(departureTime, line, trainNumber, destination)
+            : new TrainDeparture(departureTime, line, trainNumber, destination, track);
+        if (delayMinutes != 0) {
+          departure.setDelay(TrainDeparture.toLocalTime(delayMinutes));
+        }
+        departures.add(departure);
+      }
+      return departures;
+    } catch (RuntimeException e) {
+      throw new IOException("The snapshot is damaged!", e);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package edu.ntnu.stud;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listener interface for RollingTramClock.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public interface RollingClockListener {
+  /**
+   * Update method for listeners of RollingTramClock.
+   *
+   * @param clock a LocalDateTime object with the newly set date and time
+   */
+  public void update(LocalDateTime clock);
+}
@@ -0,0 +1,110 @@
+package edu.ntnu.stud;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * The RollingTramClock class manages the date and time for registers that run for more than
+ * one day. Unlike TramClock, it keeps the date, so it can move past midnight
+ * into the next day without going backwards.
+ *
+ * <p>The clock field is a LocalDateTime object that stores the date and time.
+ *
+ * <p>The listeners field is an array of the listeners of the clock, which is replaced by a copy
+ * when a listener is added or removed, like in TramClock.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class RollingTramClock {
+  private LocalDateTime clock;
+  private volatile RollingClockListener[] listeners;
+
+  /**
+   * A constructor for the RollingTramClock class.
+   *
+   * @param clock A LocalDateTime object that describes the current date and time.
+   *              Doesn't contain units lower than minutes
+   * @throws IllegalArgumentException if clock has units lower than minutes
+   */
+  public RollingTramClock(LocalDateTime clock) {
+    validator(clock);
+    this.clock = clock;
+    listeners = new RollingClockListener[0];
+  }
+
+  private static void validator(LocalDateTime clock) {
+    if (!clock.truncatedTo(ChronoUnit.MINUTES).equals(clock)) {
+      throw new IllegalArgumentException(
+          "clock cannot contain time-units lower than minutes!");
+    }
+  }
+
+  public LocalDateTime getTime() {
+    return clock;
+  }
+
+  /**
+   * Adds a listener of type RollingClockListener into listeners.
+   *
+   * @param listener an object implementing the RollingClockListener interface
+   */
+  public synchronized void addListener(RollingClockListener listener) {
+    RollingClockListener[] temp = Arrays.copyOf(listeners, listeners.length + 1);
+    temp[temp.length - 1] = listener;
+    listeners = temp;
+  }
+
+  /**
+   * Removes a listener from listeners. If the listener has been added more than once,
+   * only the first one is removed.
+   *
+   * @param listener the listener to remove
+   */
+  public synchronized void removeListener(RollingClockListener listener) {
+    RollingClockListener[] current = listeners;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == listener) {
+        RollingClockListener[] temp = new RollingClockListener[current.length - 1];
+        System.arraycopy(current, 0, temp, 0, i);
+        System.arraycopy(current, i + 1, temp, i, current.length - i - 1);
+        listeners = temp;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Iterates over listeners and calls their update method.
+   */
+  public void updateListeners() {
+    for (RollingClockListener listener : listeners) {
+      listener.update(clock);
+    }
+  }
+
+  /**
+   * Sets a new date and time for the clock, which may be on a later day.
+   * It then updates listeners with the new time.
+   *
+   * @param newTime A LocalDateTime object describing the new date and time
+   * @throws IllegalArgumentException when trying to set the clock to an earlier time
+   *                                  than it is currently, or a time with units lower
+   *                                  than minutes
+   */
+  public void setTime(LocalDateTime newTime) {
+    validator(newTime);
+    if (newTime.isBefore(clock)) {
+      throw new IllegalArgumentException("Cannot set the clock to an earlier time!");
+    }
+    clock = newTime;
+    updateListeners();
+  }
+
+  @Override
+  public String toString() {
+    return "The time is " + clock.toLocalTime() + " on " + clock.toLocalDate();
+  }
+}
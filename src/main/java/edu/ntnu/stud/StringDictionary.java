@@ -0,0 +1,100 @@
+package edu.ntnu.stud;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The StringDictionary class gives each distinct string a small integer id,
+ * so that a string that is used many times only has to be stored once.
+ *
+ * <p>The ids field is a hashmap from a string to its id, and the strings field is an ArrayList
+ * where the string with a given id is found at that index. Ids are given out from 0 and up.
+ *
+ * <p>The references field counts how many times each id has been added and not yet released.
+ * When the count of an id reaches zero, the string is removed and the id is put in the freeIds
+ * field, which is a stack of ids that are given out again before new ones. A dictionary whose
+ * strings come and go, like the train numbers of a register, therefore stays as large as
+ * the number of strings in use at once.
+ *
+ * @author Jakob Huuse
+ * @version 1.1.0
+ * @since 18.10.2026
+ */
+class StringDictionary {
+  private final HashMap<String, Integer> ids = new HashMap<>();
+  private final ArrayList<String> strings = new ArrayList<>();
+  private final ArrayList<Integer> freeIds = new ArrayList<>();
+  private int[] references = new int[16];
+
+  /**
+   * Gives the id of the string, and adds the string to the dictionary if it is not in it.
+   * Each call must be matched by a call to release once the id is no longer used.
+   *
+   * @param string the string to add
+   * @return the id of the string
+   */
+  int add(String string) {
+    Integer id = ids.get(string);
+    if (id == null) {
+      if (freeIds.isEmpty()) {
+        id = strings.size();
+        strings.add(string);
+        if (id == references.length) {
+          references = Arrays.copyOf(references, id * 2);
+        }
+      } else {
+        id = freeIds.remove(freeIds.size() - 1);
+        strings.set(id, string);
+      }
+      ids.put(string, id);
+    }
+    references[id]++;
+    return id;
+  }
+
+  /**
+   * Releases one use of an id, and removes its string once the id is no longer used,
+   * so that the id can be given to another string.
+   *
+   * @param id the id of a string in the dictionary, given by add
+   */
+  void release(int id) {
+    if (--references[id] == 0) {
+      ids.remove(strings.get(id));
+      strings.set(id, null);
+      freeIds.add(id);
+    }
+  }
+
+  /**
+   * Gives the id of the string without adding it.
+   *
+   * @param string the string to look up
+   * @return the id of the string, or -1 if it is not in the dictionary
+   */
+  int idOf(String string) {
+    Integer id = ids.get(string);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Gives the string with the given id.
+   *
+   * @param id an id that has been given out
+   * @return the string with the id, or null if the id has been released
+   */
+  String get(int id) {
+    return strings.get(id);
+  }
+
+  /**
+   * Gives the number of ids that have been given out, which is one more than the largest id.
+   * Released ids are counted, since they are given out again.
+   *
+   * @return the number of ids given out
+   */
+  int size() {
+    return strings.size();
+  }
+}
@@ -0,0 +1,32 @@
+package edu.ntnu.stud;
+
+import java.util.List;
+
+/**
+ * Thrown when a batch of train departures cannot be added to a register.
+ *
+ * <p>The errors field is a list with a message for every problem that was found in the batch,
+ * so that the whole timetable can be fixed at once.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class TimetableImportException extends IllegalArgumentException {
+  private static final long serialVersionUID = 1L;
+  private final List<String> errors;
+
+  /**
+   * A constructor that makes a message with the number of problems found.
+   *
+   * @param errors A list with a message for each problem
+   */
+  public TimetableImportException(List<String> errors) {
+    super("The timetable could not be added, because of " + errors.size() + " problem(s)!");
+    this.errors = List.copyOf(errors);
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+}
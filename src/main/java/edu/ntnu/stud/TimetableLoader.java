@@ -0,0 +1,304 @@
+package edu.ntnu.stud;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The TimetableLoader class reads train departures from a timetable file.
+ *
+ * <p>Each line of the file is one departure in the format
+ * {@code HH:mm,line,trainNumber,destination,track}, where track is left empty if it is not
+ * defined. Empty lines and lines starting with # are skipped. The file is read as UTF-8.
+ *
+ * <p>The file is memory-mapped and split into chunks, which are parsed in parallel.
+ * A chunk starts at the first line that begins inside it, and ends with the last line
+ * that begins inside it. The times and tracks are parsed straight from the bytes, and each chunk
+ * keeps one String per distinct line and destination, so only the train numbers need a new
+ * String for every departure.
+ *
+ * <p>The chunkCount field is the number of chunks a file is split into.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TimetableLoader {
+  private static final int MAX_LINE_LENGTH = 1024;
+  private static final int MAX_CHUNK_SIZE = 1 << 30;
+  private static final int FIELD_COUNT = 5;
+  private final int chunkCount;
+
+  /**
+   * A constructor that uses one chunk per available processor.
+   */
+  public TimetableLoader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * A constructor that splits files into the given number of chunks.
+   * Files larger than a gigabyte per chunk are split into more chunks.
+   *
+   * @param chunkCount A positive integer with the number of chunks
+   * @throws IllegalArgumentException if chunkCount is not positive
+   */
+  public TimetableLoader(int chunkCount) {
+    if (chunkCount < 1) {
+      throw new IllegalArgumentException("The number of chunks must be a positive integer!");
+    }
+    this.chunkCount = chunkCount;
+  }
+
+  /**
+   * Reads every departure in the file, then adds all of them to the register at once,
+   * so that they are checked against the rules of the register together.
+   *
+   * @param file     The path of a timetable file
+   * @param register A TrainDepartureRegister to add the departures to
+   * @throws IOException              if the file cannot be read
+   * @throws TimetableImportException if any line cannot be read as a departure,
+   *                                  or any departure cannot be added to the register.
+   *                                  Nothing is added to the register if it throws.
+   */
+  public void load(Path file, TrainDepartureRegister register) throws IOException {
+    register.addTrainDepartures(read(file));
+  }
+
+  /**
+   * Reads every departure in the file.
+   *
+   * @param file The path of a timetable file
+   * @return A List of the departures, in the order they are in the file
+   * @throws IOException              if the file cannot be read
+   * @throws TimetableImportException if any line cannot be read as a departure.
+   *                                  It has a message for every line with a problem.
+   */
+  public List<TrainDeparture> read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int chunks = (int) Math.max(chunkCount, size / MAX_CHUNK_SIZE + 1);
+      List<ChunkParser> parsed;
+      try {
+        parsed = IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> parseChunk(channel, size, chunk, chunks))
+            .toList();
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      List<TrainDeparture> departures = new ArrayList<>();
+      List<String> errors = new ArrayList<>();
+      for (ChunkParser chunk : parsed) {
+        departures.addAll(chunk.departures);
+        errors.addAll(chunk.errors);
+      }
+      if (!errors.isEmpty()) {
+        throw new TimetableImportException(errors);
+      }
+      return departures;
+    }
+  }
+
+  /**
+   * Maps one chunk of the file and parses the lines that begin inside it.
+   * The mapping starts one byte early, to see if the chunk starts at the beginning of a line,
+   * and ends a line length late, to be able to finish the last line.
+   *
+   * @param channel The FileChannel of the file
+   * @param size    The size of the file
+   * @param chunk   The index of the chunk
+   * @param chunks  The number of chunks
+   * @return The ChunkParser with the departures and errors of the chunk
+   */
+  private ChunkParser parseChunk(FileChannel channel, long size, int chunk, int chunks) {
+    long start = size * chunk / chunks;
+    long end = size * (chunk + 1) / chunks;
+    long mapStart = Math.max(0, start - 1);
+    long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+    MappedByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ChunkParser parser = new ChunkParser();
+    int position = (int) (start - mapStart);
+    int limit = (int) (end - mapStart);
+    if (start > 0 && buffer.get(0) != '\n') {
+      while (position < buffer.limit() && buffer.get(position - 1) != '\n') {
+        position++;
+      }
+    }
+    while (position < limit) {
+      int lineEnd = position;
+      while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      parser.parseLine(buffer, position, lineEnd, mapStart + position);
+      position = lineEnd + 1;
+    }
+    return parser;
+  }
+
+  /**
+   * Parses the lines of one chunk. The line field is reused for every line,
+   * and the lines and destinations fields keep the Strings made for each distinct value.
+   */
+  private static final class ChunkParser {
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private final int[] fieldStarts = new int[FIELD_COUNT];
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+    private final StringCache lines = new StringCache();
+    private final StringCache destinations = new StringCache();
+    private final List<TrainDeparture> departures = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Parses the line between from and to in the buffer, and adds the departure
+     * or an error message.
+     *
+     * @param buffer The mapped chunk
+     * @param from   The position of the first byte of the line
+     * @param to     The position after the last byte of the line
+     * @param offset The position of the line in the file, used in error messages
+     */
+    private void parseLine(MappedByteBuffer buffer, int from, int to, long offset) {
+      int length = to - from;
+      if (length > MAX_LINE_LENGTH) {
+        errors.add("Byte " + offset + ": The line is longer than " + MAX_LINE_LENGTH
+            + " bytes!");
+        return;
+      }
+      buffer.get(from, line, 0, length);
+      if (length > 0 && line[length - 1] == '\r') {
+        length--;
+      }
+      if (length == 0 || line[0] == '#') {
+        return;
+      }
+      int fields = 0;
+      fieldStarts[0] = 0;
+      for (int i = 0; i < length; i++) {
+        if (line[i] == ',') {
+          if (fields == FIELD_COUNT - 1) {
+            fields = FIELD_COUNT;
+            break;
+          }
+          fieldEnds[fields] = i;
+          fields++;
+          fieldStarts[fields] = i + 1;
+        }
+      }
+      if (fields != FIELD_COUNT - 1) {
+        errors.add("Byte " + offset + ": A departure must have " + FIELD_COUNT + " fields!");
+        return;
+      }
+      fieldEnds[fields] = length;
+      try {
+        int departureMinute = parseTime(fieldStarts[0], fieldEnds[0]);
+        int track = fieldStarts[4] == fieldEnds[4] ? -1 : parseInt(fieldStarts[4], fieldEnds[4]);
+        String lineName = lines.get(line, fieldStarts[1], fieldEnds[1]);
+        String trainNumber = new String(line, fieldStarts[2], fieldEnds[2] - fieldStarts[2],
+            StandardCharsets.UTF_8);
+        String destination = destinations.get(line, fieldStarts[3], fieldEnds[3]);
+        if (track == -1) {
+          departures.add(new TrainDeparture(TrainDeparture.toLocalTime(departureMinute),
+              lineName, trainNumber, destination));
+        } else {
+          departures.add(new TrainDeparture(TrainDeparture.toLocalTime(departureMinute),
+              lineName, trainNumber, destination, track));
+        }
+      } catch (IllegalArgumentException e) {
+        errors.add("Byte " + offset + ": " + e.getMessage());
+      }
+    }
+
+    private int parseTime(int from, int to) {
+      if (to - from != 5 || line[from + 2] != ':') {
+        throw new IllegalArgumentException("The time must be in the format HH:mm!");
+      }
+      int hour = parseInt(from, from + 2);
+      int minute = parseInt(from + 3, to);
+      if (hour > 23 || minute > 59) {
+        throw new IllegalArgumentException("The time must be in the format HH:mm!");
+      }
+      return hour * 60 + minute;
+    }
+
+    private int parseInt(int from, int to) {
+      if (to - from > 9) {
+        throw new IllegalArgumentException("The number is too long!");
+      }
+      int value = 0;
+      for (int i = from; i < to; i++) {
+        if (line[i] < '0' || line[i] > '9') {
+          throw new IllegalArgumentException("Expected a number!");
+        }
+        value = value * 10 + line[i] - '0';
+      }
+      return value;
+    }
+  }
+
+  /**
+   * A hash table from the bytes of a field to the String made from them,
+   * so that a value that is repeated in many lines only becomes one String.
+   */
+  private static final class StringCache {
+    private byte[][] keys = new byte[64][];
+    private String[] values = new String[64];
+    private int size;
+
+    private String get(byte[] bytes, int from, int to) {
+      int slot = hash(bytes, from, to) & (keys.length - 1);
+      while (keys[slot] != null) {
+        if (Arrays.equals(keys[slot], 0, keys[slot].length, bytes, from, to)) {
+          return values[slot];
+        }
+        slot = (slot + 1) & (keys.length - 1);
+      }
+      byte[] key = Arrays.copyOfRange(bytes, from, to);
+      String value = new String(key, StandardCharsets.UTF_8);
+      keys[slot] = key;
+      values[slot] = value;
+      size++;
+      if (size * 2 > keys.length) {
+        grow();
+      }
+      return value;
+    }
+
+    private void grow() {
+      byte[][] oldKeys = keys;
+      String[] oldValues = values;
+      keys = new byte[oldKeys.length * 2][];
+      values = new String[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != null) {
+          int slot = hash(oldKeys[i], 0, oldKeys[i].length) & (keys.length - 1);
+          while (keys[slot] != null) {
+            slot = (slot + 1) & (keys.length - 1);
+          }
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+      int hash = 1;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + bytes[i];
+      }
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
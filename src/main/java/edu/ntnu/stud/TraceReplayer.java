@@ -0,0 +1,173 @@
+package edu.ntnu.stud;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The TraceReplayer class replays a trace of changes, recorded by a DepartureJournal,
+ * against a register and a TramClock, and measures how long each change takes.
+ *
+ * <p>Additions are made with addTrainDeparture, so they go through the same checks as when
+ * they were recorded. Track changes and delays are set on the departure with the train number,
+ * and ticks set the time of the clock and wait for its listeners. The register is only
+ * given the ticks if it listens to the clock.
+ *
+ * <p>The rate field is how many times faster than it was recorded the trace is replayed.
+ * With an infinite rate, the changes are made one after another as fast as possible.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TraceReplayer {
+  private final double rate;
+
+  /**
+   * The result of a replay.
+   *
+   * @param events       the number of changes in the trace
+   * @param failures     the number of changes the register or clock did not allow
+   * @param elapsedNanos the time the whole replay took, in nanoseconds
+   * @param p50Nanos     the median time a change took, in nanoseconds
+   * @param p99Nanos     the time 99 percent of the changes took at most, in nanoseconds
+   * @param maxNanos     the longest time a change took, in nanoseconds
+   */
+  public record Report(int events, int failures, long elapsedNanos, long p50Nanos,
+                       long p99Nanos, long maxNanos) {
+
+    /**
+     * Calculates the number of changes replayed per second.
+     *
+     * @return The throughput of the replay, in changes per second
+     */
+    public double eventsPerSecond() {
+      return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT,
+          "%d events (%d failed) in %.3f ms, %.0f events/s, latency p50 %d ns, p99 %d ns,"
+              + " max %d ns",
+          events, failures, elapsedNanos / 1e6, eventsPerSecond(), p50Nanos, p99Nanos,
+          maxNanos);
+    }
+  }
+
+  /**
+   * A constructor for a replayer that replays traces as fast as possible.
+   */
+  public TraceReplayer() {
+    this(Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * A constructor for a replayer that replays traces at a scaled rate.
+   *
+   * @param rate How many times faster than it was recorded a trace is replayed,
+   *             or Double.POSITIVE_INFINITY to replay as fast as possible
+   * @throws IllegalArgumentException if rate is not positive
+   */
+  public TraceReplayer(double rate) {
+    if (!(rate > 0)) {
+      throw new IllegalArgumentException("The rate must be positive!");
+    }
+    this.rate = rate;
+  }
+
+  /**
+   * Replays the trace in a journal file against the register and the clock.
+   * A change that is not allowed is counted as a failure, and the replay goes on.
+   *
+   * @param trace    The path of a log file written by a DepartureJournal
+   * @param register A TrainDepartureRegister to make the changes in
+   * @param clock    A TramClock to give the ticks to
+   * @return A Report with the throughput and the time each change took
+   * @throws IOException if the trace cannot be read
+   */
+  public Report replay(Path trace, TrainDepartureRegister register, TramClock clock)
+      throws IOException {
+    List<DepartureJournal.Entry> entries = DepartureJournal.read(trace);
+    long[] latencies = new long[entries.size()];
+    int failures = 0;
+    long start = System.nanoTime();
+    long firstMillis = entries.isEmpty() ? 0 : entries.get(0).timeMillis();
+    for (int i = 0; i < latencies.length; i++) {
+      DepartureJournal.Entry entry = entries.get(i);
+      if (rate != Double.POSITIVE_INFINITY) {
+        long due = start
+            + (long) (TimeUnit.MILLISECONDS.toNanos(entry.timeMillis() - firstMillis) / rate);
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+          LockSupport.parkNanos(wait);
+        }
+      }
+      long before = System.nanoTime();
+      try {
+        apply(entry, register, clock);
+      } catch (IllegalArgumentException e) {
+        failures++;
+      }
+      latencies[i] = System.nanoTime() - before;
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new Report(latencies.length, failures, elapsed, percentile(latencies, 0.50),
+        percentile(latencies, 0.99), latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+  }
+
+  private static void apply(DepartureJournal.Entry entry, TrainDepartureRegister register,
+                            TramClock clock) {
+    switch (entry.type()) {
+      case ADD -> register.addTrainDeparture(entry.newDeparture());
+      case TICK -> {
+        clock.setTime(TrainDeparture.toLocalTime(entry.minute()));
+        clock.awaitListeners().join();
+      }
+      default -> entry.applyTo(register);
+    }
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[Math.max(0, (int) Math.ceil(fraction * sorted.length) - 1)];
+  }
+
+  /**
+   * Compares the departures of two registers, to check the state a replay ended in.
+   *
+   * @param expected A TrainDepartureRegister with the expected departures
+   * @param actual   A TrainDepartureRegister with the departures after a replay
+   * @return A List with one message for each train number that is missing, extra or different,
+   *        which is empty if the registers have the same departures
+   */
+  public static List<String> compare(TrainDepartureRegister expected,
+                                     TrainDepartureRegister actual) {
+    LinkedHashMap<String, String> actualRows = new LinkedHashMap<>();
+    for (TrainDeparture departure : actual.getDeparturesByTime()) {
+      actualRows.put(departure.getTrainNumber(), departure.toString());
+    }
+    List<String> differences = new ArrayList<>();
+    for (TrainDeparture departure : expected.getDeparturesByTime()) {
+      String row = actualRows.remove(departure.getTrainNumber());
+      if (row == null) {
+        differences.add("Train number " + departure.getTrainNumber() + ": Missing!");
+      } else if (!row.equals(departure.toString())) {
+        differences.add("Train number " + departure.getTrainNumber() + ": Expected "
+            + departure + " but was " + row + "!");
+      }
+    }
+    for (String trainNumber : actualRows.keySet()) {
+      differences.add("Train number " + trainNumber + ": Not expected!");
+    }
+    return differences;
+  }
+}
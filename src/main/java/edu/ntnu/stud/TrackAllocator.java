@@ -0,0 +1,171 @@
+package edu.ntnu.stud;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The TrackAllocator class gives tracks to the departures in a register that do not have one,
+ * so that no two trains are on the same track at the same time.
+ *
+ * <p>A departure occupies its track from dwellMinutes before its actual departure time to
+ * headwayMinutes after it, both included. The departures that already have one of the tracks
+ * occupy it the same way, and are not moved.
+ *
+ * <p>The departures without a track are given tracks in the order their occupation starts.
+ * Each one gets the free track that was left by a train the shortest time before, so that
+ * the longer gaps are kept for later departures. This is the greedy algorithm for interval
+ * partitioning, and with no departures on the tracks beforehand it uses as few tracks as
+ * possible. A departure that no track is free for keeps having no track.
+ *
+ * <p>The tracks field holds the tracks that can be given, in order of preference.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TrackAllocator {
+  private final int[] tracks;
+  private final int dwellMinutes;
+  private final int headwayMinutes;
+
+  /**
+   * A constructor for a TrackAllocator.
+   *
+   * @param tracks         A Collection of the tracks that can be given, in order of preference
+   * @param dwellMinutes   The minutes a train is on its track before it leaves
+   * @param headwayMinutes The minutes a track must be left empty after a train has left
+   * @throws IllegalArgumentException if there are no tracks, a track is not positive,
+   *                                  or dwellMinutes or headwayMinutes is negative
+   */
+  public TrackAllocator(Collection<Integer> tracks, int dwellMinutes, int headwayMinutes) {
+    if (tracks.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one track!");
+    }
+    if (dwellMinutes < 0 || headwayMinutes < 0) {
+      throw new IllegalArgumentException("The dwell and headway cannot be negative!");
+    }
+    this.tracks = tracks.stream().distinct().mapToInt(Integer::intValue).toArray();
+    for (int track : this.tracks) {
+      if (track < 1) {
+        throw new IllegalArgumentException("The track must be a positive integer!");
+      }
+    }
+    this.dwellMinutes = dwellMinutes;
+    this.headwayMinutes = headwayMinutes;
+  }
+
+  /**
+   * The minutes one track is occupied, as a treemap from the first to the last minute of each
+   * occupation, where no two occupations overlap, and the departure times of the trains on it.
+   */
+  private static final class Occupation {
+    private final TreeMap<Integer, Integer> intervals = new TreeMap<>();
+    private final HashSet<Integer> departureMinutes = new HashSet<>();
+
+    /**
+     * Finds how long the track has been free at the start of the interval.
+     *
+     * @return The minutes since the track was left, Integer.MAX_VALUE if it was never occupied
+     *        before, or -1 if the track is not free for the whole interval
+     */
+    private int freeFor(int start, int end, int departureMinute) {
+      if (departureMinutes.contains(departureMinute)) {
+        return -1;
+      }
+      Map.Entry<Integer, Integer> before = intervals.floorEntry(end);
+      if (before == null) {
+        return Integer.MAX_VALUE;
+      }
+      return before.getValue() >= start ? -1 : start - before.getValue();
+    }
+
+    /**
+     * Marks the interval as occupied, joining it with the occupations it overlaps.
+     */
+    private void occupy(int start, int end, int departureMinute) {
+      departureMinutes.add(departureMinute);
+      Map.Entry<Integer, Integer> before = intervals.floorEntry(start);
+      if (before != null && before.getValue() >= start) {
+        start = before.getKey();
+        end = Math.max(end, before.getValue());
+      }
+      Map.Entry<Integer, Integer> after = intervals.ceilingEntry(start);
+      while (after != null && after.getKey() <= end) {
+        end = Math.max(end, after.getValue());
+        intervals.remove(after.getKey());
+        after = intervals.higherEntry(start);
+      }
+      intervals.put(start, end);
+    }
+  }
+
+  private int start(TrainDeparture departure) {
+    return departure.getDepartureMinute() + departure.getDelayMinutes() - dwellMinutes;
+  }
+
+  private int end(TrainDeparture departure) {
+    return departure.getDepartureMinute() + departure.getDelayMinutes() + headwayMinutes;
+  }
+
+  /**
+   * Works out a track for each departure in the register without a track,
+   * without changing the register.
+   *
+   * @param register A TrainDepartureRegister with the departures
+   * @return A Map from each departure that can be given a track to its track,
+   *        in the order the tracks were given
+   */
+  public Map<TrainDeparture, Integer> plan(TrainDepartureRegister register) {
+    Occupation[] occupations = new Occupation[tracks.length];
+    for (int i = 0; i < tracks.length; i++) {
+      occupations[i] = new Occupation();
+      for (TrainDeparture departure : register.getDeparturesOnTrack(tracks[i])) {
+        occupations[i].occupy(start(departure), end(departure), departure.getDepartureMinute());
+      }
+    }
+    List<TrainDeparture> unassigned = new ArrayList<>(register.getDeparturesOnTrack(-1));
+    unassigned.sort(Comparator.comparingInt(this::start)
+        .thenComparing(TrainDepartureRegister.TIME_ORDER));
+
+    LinkedHashMap<TrainDeparture, Integer> plan = new LinkedHashMap<>();
+    for (TrainDeparture departure : unassigned) {
+      int start = start(departure);
+      int end = end(departure);
+      int best = -1;
+      int bestGap = Integer.MAX_VALUE;
+      for (int i = 0; i < tracks.length; i++) {
+        int gap = occupations[i].freeFor(start, end, departure.getDepartureMinute());
+        if (gap >= 0 && (best == -1 || gap < bestGap)) {
+          best = i;
+          bestGap = gap;
+        }
+      }
+      if (best != -1) {
+        occupations[best].occupy(start, end, departure.getDepartureMinute());
+        plan.put(departure, tracks[best]);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Gives a track to each departure in the register without a track, through setTrack,
+   * so that the register and its listeners follow the changes.
+   *
+   * @param register A TrainDepartureRegister with the departures
+   * @return A temporary List of the departures that no track was free for
+   */
+  public List<TrainDeparture> allocate(TrainDepartureRegister register) {
+    Map<TrainDeparture, Integer> plan = plan(register);
+    for (Map.Entry<TrainDeparture, Integer> assignment : plan.entrySet()) {
+      assignment.getKey().setTrack(assignment.getValue());
+    }
+    return new ArrayList<>(register.getDeparturesOnTrack(-1));
+  }
+}
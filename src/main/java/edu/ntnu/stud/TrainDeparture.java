@@ -1,6 +1,7 @@
 package edu.ntnu.stud;
 
 import java.time.LocalTime;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The TrainDeparture class is responsible for storing information stored within a specific
@@ -14,8 +15,9 @@ import java.time.LocalTime;
  *
  * <p>The class has the following fields:
  *
- * <p>departureTime - A final localTime object
- * that describes the time the train departs in the format HH:mm
+ * <p>departureMinute - A short
+ * that describes the time the train departs as the number of minutes since midnight.
+ * It is given and returned as a LocalTime object in the format HH:mm.
  *
  * <p>line - A final string that defines the route the train is running
  * in the format of "L1", "F4" etc. It can not have more than 5 characters.
@@ -30,21 +32,45 @@ import java.time.LocalTime;
  * <p>track - An integer that describes which track the train-departure is running on.
  * If the track is not defined the value is set to -1.
  *
- * <p>delay - A localtime object that describes the delay of the train in hours and minutes.
+ * <p>delayMinutes - A short that describes the delay of the train in minutes.
+ * It is given and returned as a LocalTime object in hours and minutes.
  * If no delay is set, the delay is 00:00
  *
+ * <p>The times are stored as minutes so that comparing and expiring departures can use
+ * getDepartureMinute and getActualDepartureMinute without creating LocalTime objects.
+ *
+ * <p>listeners - A list of listeners that are notified when the track or delay changes.
+ * It is copied on write, so listeners can be added and removed from other threads.
+ *
+ * <p>track and delay are volatile, and the methods setting them are synchronized, so that the
+ * listeners are notified of the changes to a departure in the same order as they are made.
+ *
+ * <p>row - The String toString() returns. It is made the first time it is needed,
+ * and made again after the track or delay changes, so boards can be drawn again without
+ * making new strings for the departures that have not changed.
+ *
  * @author Jakob Huuse
- * @version 1.0.3
+ * @version 1.4.0
  * @since 11.12.2023
  */
 public class TrainDeparture implements Comparable<TrainDeparture> {
 
-  private LocalTime departureTime;
+  private static final int MINUTES_PER_HOUR = 60;
+  static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+
+  /**
+   * The length of the string returned by toString(), unless the track has more than 9 digits.
+   */
+  static final int ROW_LENGTH = 61;
+  private short departureMinute;
   private String line;
   private final String trainNumber;
   private String destination;
-  private int track = -1;
-  private LocalTime delay = LocalTime.MIDNIGHT;
+  private volatile int track = -1;
+  private volatile short delayMinutes;
+  private final CopyOnWriteArrayList<TrainDepartureListener> listeners =
+      new CopyOnWriteArrayList<>();
+  private volatile String row;
 
 
   /**
@@ -97,7 +123,11 @@ public class TrainDeparture implements Comparable<TrainDeparture> {
   }
 
   public LocalTime getDepartureTime() {
-    return departureTime;
+    return toLocalTime(departureMinute);
+  }
+
+  public int getDepartureMinute() {
+    return departureMinute;
   }
 
   public String getLine() {
@@ -117,7 +147,11 @@ public class TrainDeparture implements Comparable<TrainDeparture> {
   }
 
   public LocalTime getDelay() {
-    return delay;
+    return toLocalTime(delayMinutes);
+  }
+
+  public int getDelayMinutes() {
+    return delayMinutes;
   }
 
   /**
@@ -126,12 +160,42 @@ public class TrainDeparture implements Comparable<TrainDeparture> {
    * @return a LocalTime object describing departureTime with delay
    */
   public LocalTime getActualDepartureTime() {
-    return departureTime.plusHours(delay.getHour()).plusMinutes(delay.getMinute());
+    return toLocalTime(getActualDepartureMinute());
+  }
+
+  /**
+   * Method that adds the delay to the departureTime to get the actual departureTime
+   * as minutes since midnight. Like LocalTime, it wraps around at midnight.
+   *
+   * @return an int describing departureTime with delay in minutes since midnight
+   */
+  public int getActualDepartureMinute() {
+    return (departureMinute + delayMinutes) % MINUTES_PER_DAY;
+  }
+
+  /**
+   * Turns a LocalTime object into the number of minutes since midnight.
+   *
+   * @param time a LocalTime object
+   * @return the number of whole minutes since midnight
+   */
+  static int toMinuteOfDay(LocalTime time) {
+    return time.getHour() * MINUTES_PER_HOUR + time.getMinute();
+  }
+
+  /**
+   * Turns a number of minutes since midnight into a LocalTime object.
+   *
+   * @param minuteOfDay the number of minutes since midnight
+   * @return a LocalTime object of the time
+   */
+  static LocalTime toLocalTime(int minuteOfDay) {
+    return LocalTime.of(minuteOfDay / MINUTES_PER_HOUR, minuteOfDay % MINUTES_PER_HOUR);
   }
 
   private void setDepartureTime(LocalTime departureTime) {
     checkTime(departureTime);
-    this.departureTime = departureTime;
+    this.departureMinute = (short) toMinuteOfDay(departureTime);
   }
 
   private void setDestination(String destination) {
@@ -149,56 +213,124 @@ public class TrainDeparture implements Comparable<TrainDeparture> {
   }
 
   /**
-   * Checks if the parameter is a positive integer, then sets the track to the parameter.
+   * Checks if the parameter is a positive integer, then sets the track to the parameter
+   * and notifies the listeners.
    *
    * @param track A positive integer.
    */
-  public void setTrack(int track) {
+  public synchronized void setTrack(int track) {
     if (track < 1) {
       throw new IllegalArgumentException("The track must be a positive integer!");
     }
+    int oldTrack = this.track;
     this.track = track;
+    row = null;
+    for (TrainDepartureListener listener : listeners) {
+      listener.trackChanged(this, oldTrack);
+    }
   }
 
-  public void setDelay(LocalTime delay) {
+  /**
+   * Validates the delay, sets it and notifies the listeners.
+   *
+   * @param delay A LocalTime object that cannot contain time-units lower than minutes.
+   */
+  public synchronized void setDelay(LocalTime delay) {
     checkTime(delay);
-    this.delay = delay;
+    LocalTime oldDelay = getDelay();
+    this.delayMinutes = (short) toMinuteOfDay(delay);
+    row = null;
+    for (TrainDepartureListener listener : listeners) {
+      listener.delayChanged(this, oldDelay);
+    }
+  }
+
+  /**
+   * Adds a listener of type TrainDepartureListener into listeners.
+   *
+   * @param listener an object implementing the TrainDepartureListener interface
+   */
+  public void addListener(TrainDepartureListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener from listeners.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(TrainDepartureListener listener) {
+    listeners.remove(listener);
   }
 
   /**
    * toString method that makes sure the spacing between the fields that are printed are consistent.
+   * The string is kept until the track or delay changes.
    *
    * @return String representing this class
    */
   @Override
   public String toString() {
-    StringBuilder temp = new StringBuilder(getDepartureTime() + "   " + getLine());
-    while (temp.length() < 14) {
-      temp.append(" ");
-    }
-    temp.append(getTrainNumber());
-    while (temp.length() < 20) {
-      temp.append(" ");
-    }
-    temp.append(getDestination());
-    while (temp.length() < 36) {
-      temp.append(" ");
+    String temp = row;
+    if (temp == null) {
+      temp = makeRow();
     }
+    return temp;
+  }
 
-    if (!getDelay().equals(LocalTime.MIDNIGHT)) {
-      temp.append(getDelay());
-    }
-    while (temp.length() < 46) {
-      temp.append(" ");
-    }
-    if (getTrack() != -1) {
-      temp.append(getTrack());
+  /**
+   * Makes the string toString() returns, writing each field into its column.
+   * It is synchronized with the setters, so that it cannot keep a row made from an old value.
+   *
+   * @return String representing this class
+   */
+  private synchronized String makeRow() {
+    if (row == null) {
+      StringBuilder temp = new StringBuilder(ROW_LENGTH);
+      appendTime(temp, departureMinute);
+      temp.append("   ").append(line);
+      padTo(temp, 14);
+      temp.append(trainNumber);
+      padTo(temp, 20);
+      temp.append(destination);
+      padTo(temp, 36);
+      if (delayMinutes != 0) {
+        appendTime(temp, delayMinutes);
+      }
+      padTo(temp, 46);
+      if (track != -1) {
+        temp.append(track);
+      }
+      padTo(temp, 56);
+      appendTime(temp, getActualDepartureMinute());
+      row = temp.toString();
     }
-    while (temp.length() < 56) {
-      temp.append(" ");
+    return row;
+  }
+
+  /**
+   * Appends a time in the format HH:mm, the same way LocalTime writes a time without seconds.
+   *
+   * @param builder     the StringBuilder to append to
+   * @param minuteOfDay the time in minutes since midnight
+   */
+  static void appendTime(StringBuilder builder, int minuteOfDay) {
+    int hour = minuteOfDay / MINUTES_PER_HOUR;
+    int minute = minuteOfDay % MINUTES_PER_HOUR;
+    builder.append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10)).append(':')
+        .append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10));
+  }
+
+  /**
+   * Appends spaces until the builder has the given length.
+   *
+   * @param builder the StringBuilder to append to
+   * @param length  the length to pad to
+   */
+  private static void padTo(StringBuilder builder, int length) {
+    while (builder.length() < length) {
+      builder.append(' ');
     }
-    temp.append(getActualDepartureTime());
-    return temp.toString();
   }
 
   /**
@@ -210,12 +342,6 @@ public class TrainDeparture implements Comparable<TrainDeparture> {
    */
   @Override
   public int compareTo(TrainDeparture o) {
-    if (this.getDepartureTime().isBefore(o.getDepartureTime())) {
-      return -1;
-    } else if (this.getDepartureTime().isAfter(o.getDepartureTime())) {
-      return 1;
-    } else {
-      return 0;
-    }
+    return Integer.compare(this.getDepartureMinute(), o.getDepartureMinute());
   }
 }
@@ -0,0 +1,31 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+
+/**
+ * Listener interface for TrainDeparture.
+ *
+ * <p>The methods are called after the field has been changed,
+ * and are given the old value so that listeners can update anything keyed by it.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public interface TrainDepartureListener {
+  /**
+   * Called when a new track has been set on a TrainDeparture.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldTrack  the track the departure had before the change
+   */
+  public void trackChanged(TrainDeparture departure, int oldTrack);
+
+  /**
+   * Called when a new delay has been set on a TrainDeparture.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldDelay  a LocalTime object with the delay the departure had before the change
+   */
+  public void delayChanged(TrainDeparture departure, LocalTime oldDelay);
+}
@@ -1,32 +1,169 @@
 package edu.ntnu.stud;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * The TrainDepartureRegister class is responsible for managing a collection
  * of TrainDeparture objects.
  *
- * <p>It has only one field, called register. The register is a hashmap where the keys are
+ * <p>The register field is a hashmap where the keys are
  * a String with the train number to the TrainDeparture value attached to the key.
  *
+ * <p>The trackSlots field is a hashmap that counts the departures using each
+ * departure time and track, and the lineSlots field is a set of every departure time and line
+ * in use. They are used to check for conflicts without looking through the whole register.
+ * The register listens to its departures so that trackSlots is updated when a track changes.
+ *
+ * <p>The destinations field is a hashmap from a lower-case destination to a list of the
+ * departures going there, kept sorted by departure time and then train number.
+ *
+ * <p>The departures field is a treeset with every departure in the register, ordered by
+ * departure time and then train number, so that the register never has to be sorted.
+ * The tracks and lines fields are hashmaps from a track or a line to a treeset of the departures
+ * using it, in the same order. A treeset is only made when a departure is added to it, so that
+ * looking up a track or line never leaves anything behind, and it is kept when it becomes empty.
+ * A view of a track or line looks up its treeset again each time it is used, so it follows
+ * the register also when the track or line is empty for a while or had no treeset yet.
+ *
+ * <p>The expiries field is a treeset ordered by actual departure time, so that expired
+ * departures can be taken from the front of it. The register moves a departure in expiries
+ * when its delay changes. Both treesets are used to find the departures in a window of time
+ * without going through the rest of the register. If the wrapExpiries field is true, an actual
+ * departure time past midnight wraps around to the start of the day, like
+ * getActualDepartureTime. Otherwise it is counted on from the start of the day, up to two days,
+ * so that a register for one service day keeps a train delayed past midnight until it leaves.
+ *
+ * <p>The changeListeners field is a list of the listeners that are given each batch of changes
+ * to the register. No changes are made into objects unless there is a listener.
+ *
+ * <p>The metrics field is null unless metrics have been set, and then the time taken by
+ * adding, searching and removing expired departures is recorded in it.
+ *
  * @author Jakob Huuse
- * @version 1.1.0
+ * @version 1.12.8
  * @since 11.12.2023
  */
-public class TrainDepartureRegister implements TramClockListener {
+public class TrainDepartureRegister implements TramClockListener, TrainDepartureListener {
   private final HashMap<String, TrainDeparture> register;
+  private final HashMap<Slot, Integer> trackSlots;
+  private final HashSet<Slot> lineSlots;
+  private final HashMap<String, ArrayList<TrainDeparture>> destinations;
+  private final TreeSet<TrainDeparture> departures;
+  private final HashMap<Integer, TreeSet<TrainDeparture>> tracks;
+  private final HashMap<String, TreeSet<TrainDeparture>> lines;
+  private final TreeSet<Expiry> expiries;
+  private final CopyOnWriteArrayList<RegisterChangeListener> changeListeners;
+  private final boolean wrapExpiries;
+  private RegisterMetrics metrics;
 
   /**
-   * A constructor that initializes the register field.
+   * The headings printed above the departures.
+   */
+  static final String HEADINGS =
+      "Time" + "    " + "Line" + "  " + "Nr." + "   " + "Destination" + "     " + "Delay"
+          + "     " + "Track" + "     " + "ETA"
+          + "\n" + "--------------------------------------------------------------";
+
+  /**
+   * Orders departures by departure time, and then by train number for departures
+   * with the same departure time.
+   */
+  static final Comparator<TrainDeparture> TIME_ORDER =
+      Comparator.<TrainDeparture>naturalOrder().thenComparing(TrainDeparture::getTrainNumber);
+
+  /**
+   * An empty treeset given out for a track or line without departures. It is never changed.
+   */
+  private static final TreeSet<TrainDeparture> NO_DEPARTURES = new TreeSet<>(TIME_ORDER);
+
+  /**
+   * Orders expiries by actual departure time, and then by train number.
+   */
+  private static final Comparator<Expiry> EXPIRY_ORDER =
+      Comparator.comparingInt(Expiry::actualDepartureMinute)
+          .thenComparing(expiry -> expiry.departure().getTrainNumber());
+
+  /**
+   * A departure time paired with either a track or a line.
+   *
+   * @param departureMinute the departure time of the slot in minutes since midnight
+   * @param value           the track or line of the slot
+   */
+  private record Slot(int departureMinute, Object value) {
+  }
+
+  /**
+   * The time a departure expires. Unlike the departure itself, it never changes,
+   * so it can be found in expiries after the delay of the departure has changed.
+   *
+   * @param actualDepartureMinute the actual departure time of the departure
+   *                              in minutes since midnight, wrapped or not by wrapExpiries
+   * @param departure             the departure
+   */
+  private record Expiry(int actualDepartureMinute, TrainDeparture departure) {
+  }
+
+  /**
+   * A constructor that initializes the register and index fields.
    */
   public TrainDepartureRegister() {
+    this(true);
+  }
+
+  /**
+   * A constructor that initializes the register and index fields.
+   *
+   * @param wrapExpiries true to wrap actual departure times past midnight around to the start
+   *                     of the day, false to count them on from the start of the day
+   */
+  TrainDepartureRegister(boolean wrapExpiries) {
+    this.wrapExpiries = wrapExpiries;
     register = new HashMap<>();
+    trackSlots = new HashMap<>();
+    lineSlots = new HashSet<>();
+    destinations = new HashMap<>();
+    departures = new TreeSet<>(TIME_ORDER);
+    tracks = new HashMap<>();
+    lines = new HashMap<>();
+    expiries = new TreeSet<>(EXPIRY_ORDER);
+    changeListeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Makes the key used for a destination in the destinations field. Each character is made
+   * upper case and then lower case on its own, which is how String.equalsIgnoreCase compares
+   * characters, so two destinations get the same key exactly when they are equal ignoring case.
+   *
+   * @param destination A string that describes a destination
+   * @return The destination with its case folded
+   */
+  private static String destinationKey(String destination) {
+    StringBuilder key = new StringBuilder(destination.length());
+    destination.codePoints()
+        .map(codePoint -> Character.toLowerCase(Character.toUpperCase(codePoint)))
+        .forEach(key::appendCodePoint);
+    return key.toString();
   }
 
   /**
@@ -40,23 +177,198 @@ public class TrainDepartureRegister implements TramClockListener {
    *                                  and the same track or line.
    */
   public void addTrainDeparture(TrainDeparture departure) {
+    RegisterMetrics current = metrics;
+    if (current == null) {
+      checkAndIndex(departure);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      checkAndIndex(departure);
+    } finally {
+      current.recordAdd(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Checks if the departure can be added, then adds it, as described in addTrainDeparture.
+   *
+   * @param departure A TrainDeparture object
+   */
+  private void checkAndIndex(TrainDeparture departure) {
+    checkTrainDeparture(departure);
+    index(departure);
+    if (!changeListeners.isEmpty()) {
+      publish(List.of(RegisterChange.of(RegisterChange.Type.ADDED, departure)));
+    }
+  }
+
+  /**
+   * Checks if the departure can be added, without adding it.
+   *
+   * @param departure A TrainDeparture object
+   * @throws IllegalArgumentException as described in addTrainDeparture
+   */
+  void checkTrainDeparture(TrainDeparture departure) {
     if (register.containsKey(departure.getTrainNumber())) {
       throw new IllegalArgumentException("The train number is already being used!");
     }
 
-    register.values().forEach(value -> {
-      if (value.getDepartureTime().equals(departure.getDepartureTime())) {
-        if (value.getTrack() == departure.getTrack()) {
-          throw new IllegalArgumentException(
-              "There can't be two trains on one track at the same departure time!");
-        }
-        if (value.getLine().equals(departure.getLine())) {
-          throw new IllegalArgumentException(
-              ("There can't be two trains with the same line at the same departure time!"));
-        }
+    Slot trackSlot = new Slot(departure.getDepartureMinute(), departure.getTrack());
+    if (trackSlots.containsKey(trackSlot)) {
+      throw new IllegalArgumentException(
+          "There can't be two trains on one track at the same departure time!");
+    }
+    Slot lineSlot = new Slot(departure.getDepartureMinute(), departure.getLine());
+    if (lineSlots.contains(lineSlot)) {
+      throw new IllegalArgumentException(
+          ("There can't be two trains with the same line at the same departure time!"));
+    }
+  }
+
+  /**
+   * Checks if you are allowed to add all the train departures to the register,
+   * then adds all of them. The departures are checked against the register and against each
+   * other in one pass, and every problem found is collected instead of stopping at the first.
+   * If any departure cannot be added, none of them are added.
+   *
+   * @param batch A Collection of TrainDeparture objects
+   * @throws TimetableImportException If any of the departures uses the same train number as
+   *                                  another departure in the register or in the batch,
+   *                                  or has the same departure time and the same track or line.
+   *                                  It has a list with every problem that was found.
+   */
+  public void addTrainDepartures(Collection<TrainDeparture> batch) {
+    checkTrainDepartures(batch);
+    for (TrainDeparture departure : batch) {
+      index(departure);
+    }
+    publish(RegisterChange.Type.ADDED, batch);
+  }
+
+  /**
+   * Checks if all the departures can be added, without adding any of them.
+   *
+   * @param batch A Collection of TrainDeparture objects
+   * @throws TimetableImportException as described in addTrainDepartures
+   */
+  void checkTrainDepartures(Collection<TrainDeparture> batch) {
+    List<String> errors = new ArrayList<>();
+    HashSet<String> batchTrainNumbers = new HashSet<>();
+    HashSet<Slot> batchTrackSlots = new HashSet<>();
+    HashSet<Slot> batchLineSlots = new HashSet<>();
+    for (TrainDeparture departure : batch) {
+      String trainNumber = departure.getTrainNumber();
+      if (register.containsKey(trainNumber) || !batchTrainNumbers.add(trainNumber)) {
+        errors.add("Train number " + trainNumber + ": The train number is already being used!");
+      }
+      Slot trackSlot = new Slot(departure.getDepartureMinute(), departure.getTrack());
+      if (trackSlots.containsKey(trackSlot) || !batchTrackSlots.add(trackSlot)) {
+        errors.add("Train number " + trainNumber
+            + ": There can't be two trains on one track at the same departure time!");
       }
-    });
+      Slot lineSlot = new Slot(departure.getDepartureMinute(), departure.getLine());
+      if (lineSlots.contains(lineSlot) || !batchLineSlots.add(lineSlot)) {
+        errors.add("Train number " + trainNumber
+            + ": There can't be two trains with the same line at the same departure time!");
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new TimetableImportException(errors);
+    }
+  }
+
+  /**
+   * Adds departures that were saved from a register, without the conflict checks.
+   * A register can hold two departures on one track at the same departure time if the track of
+   * one of them was changed, and such a register must still be restored as it was.
+   *
+   * @param saved A Collection of TrainDeparture objects from a saved register
+   * @throws IllegalArgumentException if a train number is already being used
+   */
+  void restoreTrainDepartures(Collection<TrainDeparture> saved) {
+    for (TrainDeparture departure : saved) {
+      if (register.containsKey(departure.getTrainNumber())) {
+        throw new IllegalArgumentException("The train number is already being used!");
+      }
+      index(departure);
+    }
+    publish(RegisterChange.Type.ADDED, saved);
+  }
+
+  /**
+   * Adds a TrainDeparture object that has been checked to the register and its indexes,
+   * and starts listening to it.
+   *
+   * @param departure A TrainDeparture object that can be added to the register
+   */
+  private void index(TrainDeparture departure) {
     register.put(departure.getTrainNumber(), departure);
+    trackSlots.merge(new Slot(departure.getDepartureMinute(), departure.getTrack()), 1,
+        Integer::sum);
+    lineSlots.add(new Slot(departure.getDepartureMinute(), departure.getLine()));
+    ArrayList<TrainDeparture> sameDestination =
+        destinations.computeIfAbsent(destinationKey(departure.getDestination()),
+            key -> new ArrayList<>());
+    int index = Collections.binarySearch(sameDestination, departure, TIME_ORDER);
+    sameDestination.add(-index - 1, departure);
+    departures.add(departure);
+    tracks.computeIfAbsent(departure.getTrack(), key -> new TreeSet<>(TIME_ORDER)).add(departure);
+    lines.computeIfAbsent(departure.getLine(), key -> new TreeSet<>(TIME_ORDER)).add(departure);
+    expiries.add(new Expiry(expiryMinute(departure, departure.getDelayMinutes()), departure));
+    departure.addListener(this);
+  }
+
+  /**
+   * Removes a TrainDeparture object from the indexes and stops listening to it.
+   *
+   * @param departure A TrainDeparture object that has been removed from the register
+   */
+  private void unindex(TrainDeparture departure) {
+    releaseTrackSlot(departure.getDepartureMinute(), departure.getTrack());
+    lineSlots.remove(new Slot(departure.getDepartureMinute(), departure.getLine()));
+    String key = destinationKey(departure.getDestination());
+    ArrayList<TrainDeparture> sameDestination = destinations.get(key);
+    sameDestination.remove(Collections.binarySearch(sameDestination, departure, TIME_ORDER));
+    if (sameDestination.isEmpty()) {
+      destinations.remove(key);
+    }
+    departures.remove(departure);
+    tracks.get(departure.getTrack()).remove(departure);
+    lines.get(departure.getLine()).remove(departure);
+    expiries.remove(new Expiry(expiryMinute(departure, departure.getDelayMinutes()), departure));
+    departure.removeListener(this);
+  }
+
+  /**
+   * Gives the minute a departure expires at with the given delay, as kept in expiries.
+   *
+   * @param departure    a TrainDeparture object
+   * @param delayMinutes the delay of the departure in minutes
+   * @return the actual departure time in minutes since midnight, wrapped if wrapExpiries is true
+   */
+  private int expiryMinute(TrainDeparture departure, int delayMinutes) {
+    int minute = departure.getDepartureMinute() + delayMinutes;
+    return wrapExpiries ? minute % TrainDeparture.MINUTES_PER_DAY : minute;
+  }
+
+  private TreeSet<TrainDeparture> onTrack(int track) {
+    return tracks.getOrDefault(track, NO_DEPARTURES);
+  }
+
+  private TreeSet<TrainDeparture> ofLine(String line) {
+    return lines.getOrDefault(line, NO_DEPARTURES);
+  }
+
+  /**
+   * Decreases the count of departures using the given departure time and track.
+   *
+   * @param departureMinute The departure time in minutes since midnight
+   * @param track           The track
+   */
+  private void releaseTrackSlot(int departureMinute, int track) {
+    trackSlots.computeIfPresent(new Slot(departureMinute, track),
+        (slot, count) -> count == 1 ? null : count - 1);
   }
 
   /**
@@ -68,59 +380,187 @@ public class TrainDepartureRegister implements TramClockListener {
    * @throws IllegalArgumentException if the train number is not in the register.
    */
   public TrainDeparture searchTrainNumber(String trainNumber) {
-    if (!register.containsKey(trainNumber)) {
+    RegisterMetrics current = metrics;
+    long start = current == null ? 0 : System.nanoTime();
+    TrainDeparture departure = register.get(trainNumber);
+    if (current != null) {
+      current.recordSearch(System.nanoTime() - start);
+    }
+    if (departure == null) {
       throw new IllegalArgumentException("That train number is not in the register!");
     }
-    return register.get(trainNumber);
+    return departure;
   }
 
   /**
    * Searches after TrainDeparture objects with the given destination
-   * by using stream with filter, ignoring capitalization.
-   * The list is then sorted.
+   * by looking it up in the destinations field, ignoring capitalization.
    *
    * @param destination A string that describes
    *                    the destination of the TrainDeparture objects you want to find.
-   * @return A sorted temporary List
-   *        containing the TrainDeparture objects with the given destination.
+   * @return A temporary List containing the TrainDeparture objects with the given
+   *        destination, sorted by departure time.
    * @throws IllegalArgumentException if the destination is not in the register.
    */
   public List<TrainDeparture> searchDestination(String destination) {
-    List<TrainDeparture> temp =
-        register.values().stream()
-            .filter(value -> value.getDestination().equalsIgnoreCase(destination))
-            .collect(Collectors.toList());
-    if (temp.isEmpty()) {
+    RegisterMetrics current = metrics;
+    long start = current == null ? 0 : System.nanoTime();
+    List<TrainDeparture> sameDestination = findDestination(destination);
+    if (current != null) {
+      current.recordSearch(System.nanoTime() - start);
+    }
+    if (sameDestination.isEmpty()) {
       throw new IllegalArgumentException("That destination is not in the register!");
     }
-    Collections.sort(temp);
-    return temp;
+    return new ArrayList<>(sameDestination);
+  }
+
+  /**
+   * Looks up the TrainDeparture objects with the given destination, ignoring capitalization.
+   *
+   * @param destination A string that describes a destination
+   * @return An unmodifiable List view of the departures sorted by departure time,
+   *        which is empty if the destination is not in the register. The view must be copied
+   *        before the register is changed.
+   */
+  List<TrainDeparture> findDestination(String destination) {
+    ArrayList<TrainDeparture> sameDestination = destinations.get(destinationKey(destination));
+    if (sameDestination == null) {
+      return List.of();
+    }
+    return Collections.unmodifiableList(sameDestination);
   }
 
   /**
-   * Removes expired TrainDeparture objects from the register
-   * by creating a temporary filtered map, then replacing the register with that filtered map.
+   * Removes expired TrainDeparture objects from the register and its indexes
+   * by taking them from the front of expiries, until it reaches a departure that has not expired.
    *
    * @param clock A LocalTime object that describes the current time.
    */
   public void removeExpiredDepartures(LocalTime clock) {
-    Map<String, TrainDeparture> temp = register.entrySet().stream()
-        .filter(entry -> entry.getValue().getActualDepartureTime().isAfter(clock))
-        .collect(Collectors.toMap(
-            Map.Entry::getKey, Map.Entry::getValue));
-    register.clear();
-    register.putAll(temp);
+    pollExpiredDepartures(clock);
+  }
+
+  /**
+   * Removes expired TrainDeparture objects from the register and its indexes,
+   * and gives back the ones that were removed.
+   *
+   * @param clock A LocalTime object that describes the current time.
+   * @return A temporary List of the removed departures, ordered by actual departure time
+   */
+  List<TrainDeparture> pollExpiredDepartures(LocalTime clock) {
+    return pollExpiredDepartures(TrainDeparture.toMinuteOfDay(clock));
+  }
+
+  /**
+   * Removes the TrainDeparture objects with an actual departure time at or before the given
+   * minute from the register and its indexes, and gives back the ones that were removed.
+   * If wrapExpiries is false, the minute may be past the end of the day.
+   *
+   * @param clockMinute the current time in minutes since the start of the day of the register
+   * @return A temporary List of the removed departures, ordered by actual departure time
+   */
+  List<TrainDeparture> pollExpiredDepartures(int clockMinute) {
+    RegisterMetrics current = metrics;
+    long start = current == null ? 0 : System.nanoTime();
+    List<TrainDeparture> expired = new ArrayList<>();
+    while (!expiries.isEmpty() && expiries.first().actualDepartureMinute() <= clockMinute) {
+      TrainDeparture departure = expiries.pollFirst().departure();
+      register.remove(departure.getTrainNumber());
+      unindex(departure);
+      expired.add(departure);
+    }
+    publish(RegisterChange.Type.EXPIRED, expired);
+    if (current != null) {
+      current.recordExpiry(System.nanoTime() - start, expired.size());
+    }
+    return expired;
+  }
+
+  /**
+   * Adds a listener of type RegisterChangeListener into changeListeners.
+   *
+   * @param listener an object implementing the RegisterChangeListener interface
+   */
+  public void addChangeListener(RegisterChangeListener listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener from changeListeners.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeChangeListener(RegisterChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  /**
+   * Gives a change of the same type for each departure to the change listeners as one batch,
+   * if there are any listeners and any departures.
+   *
+   * @param type       the kind of change
+   * @param departures the TrainDeparture objects that were changed
+   */
+  private void publish(RegisterChange.Type type, Collection<TrainDeparture> departures) {
+    if (changeListeners.isEmpty() || departures.isEmpty()) {
+      return;
+    }
+    List<RegisterChange> changes = new ArrayList<>(departures.size());
+    for (TrainDeparture departure : departures) {
+      changes.add(RegisterChange.of(type, departure));
+    }
+    publish(Collections.unmodifiableList(changes));
+  }
+
+  private void publish(List<RegisterChange> changes) {
+    for (RegisterChangeListener listener : changeListeners) {
+      listener.registerChanged(changes);
+    }
+  }
+
+  /**
+   * Starts recording the time taken by adding, searching and removing expired departures
+   * in the given metrics, or stops recording if it is null. The metrics can be shared with
+   * a TramClock.
+   *
+   * @param metrics A RegisterMetrics object, or null to stop recording
+   */
+  public void setMetrics(RegisterMetrics metrics) {
+    this.metrics = metrics;
+    if (metrics != null) {
+      metrics.setRegisterSize(register::size);
+    }
+  }
+
+  /**
+   * Checks if the given TrainDeparture object itself is in the register, and not only
+   * another departure with the same train number.
+   *
+   * @param departure A TrainDeparture object
+   * @return true if the departure is in the register
+   */
+  boolean contains(TrainDeparture departure) {
+    return register.get(departure.getTrainNumber()) == departure;
   }
 
   /**
-   * Makes a temporary list and sorts the TrainDeparture objects.
+   * Makes a temporary list of the TrainDeparture objects, which are already kept sorted.
    *
    * @return A temporary ArrayList that is sorted by the objects departureTime
    */
   public ArrayList<TrainDeparture> sortByTime() {
-    ArrayList<TrainDeparture> temp = new ArrayList<>(register.values());
-    Collections.sort(temp);
-    return temp;
+    return new ArrayList<>(departures);
+  }
+
+  /**
+   * Gives the TrainDeparture objects in the order of their departure time, without copying them.
+   *
+   * @return An unmodifiable NavigableSet view of the departures, ordered by departure time
+   *        and then train number
+   */
+  public NavigableSet<TrainDeparture> getDeparturesByTime() {
+    return Collections.unmodifiableNavigableSet(departures);
   }
 
   @Override
@@ -128,23 +568,400 @@ public class TrainDepartureRegister implements TramClockListener {
     removeExpiredDepartures(clock);
   }
 
+  /**
+   * Moves the departure from its old track slot to its new one,
+   * and from the departures on its old track to the departures on its new one.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldTrack  the track the departure had before the change
+   */
+  @Override
+  public void trackChanged(TrainDeparture departure, int oldTrack) {
+    if (!contains(departure)) {
+      return;
+    }
+    releaseTrackSlot(departure.getDepartureMinute(), oldTrack);
+    trackSlots.merge(new Slot(departure.getDepartureMinute(), departure.getTrack()), 1,
+        Integer::sum);
+    tracks.get(oldTrack).remove(departure);
+    tracks.computeIfAbsent(departure.getTrack(), key -> new TreeSet<>(TIME_ORDER)).add(departure);
+    if (!changeListeners.isEmpty()) {
+      publish(List.of(new RegisterChange(RegisterChange.Type.TRACK_CHANGED, departure, oldTrack,
+          departure.getDelay())));
+    }
+  }
+
+  /**
+   * Moves the departure in expiries from its old actual departure time to its new one.
+   * The conflict indexes are keyed by departure time, which a delay does not change.
+   *
+   * @param departure the TrainDeparture object that changed
+   * @param oldDelay  a LocalTime object with the delay the departure had before the change
+   */
+  @Override
+  public void delayChanged(TrainDeparture departure, LocalTime oldDelay) {
+    if (!contains(departure)) {
+      return;
+    }
+    expiries.remove(
+        new Expiry(expiryMinute(departure, TrainDeparture.toMinuteOfDay(oldDelay)), departure));
+    expiries.add(new Expiry(expiryMinute(departure, departure.getDelayMinutes()), departure));
+    if (!changeListeners.isEmpty()) {
+      publish(List.of(new RegisterChange(RegisterChange.Type.DELAY_CHANGED, departure,
+          departure.getTrack(), oldDelay)));
+    }
+  }
+
+  /**
+   * Appends the headings for the departures, then the toString() of each TrainDeparture
+   * in time order on a new line. The departures keep their rows until their track or delay
+   * changes, so drawing the board again into the same StringBuilder only makes new rows
+   * for the departures that changed since the last time.
+   *
+   * @param board A StringBuilder to append the board to
+   */
+  public void appendBoard(StringBuilder board) {
+    board.append(HEADINGS);
+    for (TrainDeparture departure : departures) {
+      board.append('\n').append(departure.toString());
+    }
+  }
+
+  /**
+   * Gives the departures with a departure time within the given window, without copying them.
+   *
+   * @param from the first departure time in the window, in minutes since midnight
+   * @param to   the last departure time in the window, in minutes since midnight
+   * @return An unmodifiable NavigableSet view of the departures in the window
+   */
+  NavigableSet<TrainDeparture> departuresBetween(int from, int to) {
+    return between(departures, from, to);
+  }
+
+  /**
+   * Gives the part of a treeset ordered by TIME_ORDER within a window of departure time.
+   *
+   * @param set  a treeset of departures ordered by TIME_ORDER
+   * @param from the first departure time in the window, in minutes since midnight
+   * @param to   the last departure time in the window, in minutes since midnight
+   * @return An unmodifiable NavigableSet view of the departures in the window
+   */
+  private static NavigableSet<TrainDeparture> between(TreeSet<TrainDeparture> set, int from,
+                                                       int to) {
+    TrainDeparture first = new TrainDeparture(TrainDeparture.toLocalTime(from), "", "", "");
+    if (to == TrainDeparture.MINUTES_PER_DAY - 1) {
+      return Collections.unmodifiableNavigableSet(set.tailSet(first, true));
+    }
+    TrainDeparture last = new TrainDeparture(TrainDeparture.toLocalTime(to + 1), "", "", "");
+    return Collections.unmodifiableNavigableSet(set.subSet(first, true, last, false));
+  }
+
+  /**
+   * An unmodifiable view that looks up the treeset of a track or line each time it is used,
+   * for a track or line that has had no departures yet. Once a departure is added, the view
+   * shows the treeset that was made for it.
+   */
+  private static final class LazyView extends AbstractSet<TrainDeparture>
+      implements NavigableSet<TrainDeparture> {
+    private final Supplier<TreeSet<TrainDeparture>> set;
+
+    private LazyView(Supplier<TreeSet<TrainDeparture>> set) {
+      this.set = set;
+    }
+
+    private NavigableSet<TrainDeparture> current() {
+      return Collections.unmodifiableNavigableSet(set.get());
+    }
+
+    @Override
+    public Iterator<TrainDeparture> iterator() {
+      return current().iterator();
+    }
+
+    @Override
+    public int size() {
+      return set.get().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return set.get().contains(o);
+    }
+
+    @Override
+    public Comparator<? super TrainDeparture> comparator() {
+      return TIME_ORDER;
+    }
+
+    @Override
+    public TrainDeparture first() {
+      return set.get().first();
+    }
+
+    @Override
+    public TrainDeparture last() {
+      return set.get().last();
+    }
+
+    @Override
+    public TrainDeparture lower(TrainDeparture departure) {
+      return set.get().lower(departure);
+    }
+
+    @Override
+    public TrainDeparture floor(TrainDeparture departure) {
+      return set.get().floor(departure);
+    }
+
+    @Override
+    public TrainDeparture ceiling(TrainDeparture departure) {
+      return set.get().ceiling(departure);
+    }
+
+    @Override
+    public TrainDeparture higher(TrainDeparture departure) {
+      return set.get().higher(departure);
+    }
+
+    @Override
+    public TrainDeparture pollFirst() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TrainDeparture pollLast() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NavigableSet<TrainDeparture> descendingSet() {
+      return current().descendingSet();
+    }
+
+    @Override
+    public Iterator<TrainDeparture> descendingIterator() {
+      return current().descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<TrainDeparture> subSet(TrainDeparture from, boolean fromInclusive,
+                                               TrainDeparture to, boolean toInclusive) {
+      return current().subSet(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<TrainDeparture> headSet(TrainDeparture to, boolean inclusive) {
+      return current().headSet(to, inclusive);
+    }
+
+    @Override
+    public NavigableSet<TrainDeparture> tailSet(TrainDeparture from, boolean inclusive) {
+      return current().tailSet(from, inclusive);
+    }
+
+    @Override
+    public SortedSet<TrainDeparture> subSet(TrainDeparture from, TrainDeparture to) {
+      return current().subSet(from, to);
+    }
+
+    @Override
+    public SortedSet<TrainDeparture> headSet(TrainDeparture to) {
+      return current().headSet(to);
+    }
+
+    @Override
+    public SortedSet<TrainDeparture> tailSet(TrainDeparture from) {
+      return current().tailSet(from);
+    }
+  }
+
+  /**
+   * Gives the departures on a track, without copying them. The view follows later changes
+   * to the register, also when departures are moved to or from the track, and also when
+   * the track has no departures at the time. A part of the view taken with subSet, headSet
+   * or tailSet only follows the register if the track had a departure when it was taken.
+   *
+   * @param track The track of the departures, or -1 for departures without a track
+   * @return An unmodifiable NavigableSet view of the departures on the track,
+   *        ordered by departure time and then train number
+   */
+  public NavigableSet<TrainDeparture> getDeparturesOnTrack(int track) {
+    TreeSet<TrainDeparture> set = tracks.get(track);
+    return set == null ? new LazyView(() -> onTrack(track))
+        : Collections.unmodifiableNavigableSet(set);
+  }
+
+  /**
+   * Gives the departures of a line, without copying them. The view follows later changes
+   * to the register, also when the line has no departures at the time. A part of the view
+   * taken with subSet, headSet or tailSet only follows the register if the line had a departure
+   * when it was taken.
+   *
+   * @param line A String with the line of the departures
+   * @return An unmodifiable NavigableSet view of the departures of the line,
+   *        ordered by departure time and then train number
+   */
+  public NavigableSet<TrainDeparture> getDeparturesOfLine(String line) {
+    TreeSet<TrainDeparture> set = lines.get(line);
+    return set == null ? new LazyView(() -> ofLine(line))
+        : Collections.unmodifiableNavigableSet(set);
+  }
+
+  private static void checkWindow(LocalTime from, LocalTime to) {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("The start of the window cannot be after the end!");
+    }
+  }
+
+  /**
+   * Gives the departures with a departure time from and including from,
+   * to and including to, without copying them.
+   *
+   * @param from A LocalTime object with the first departure time in the window
+   * @param to   A LocalTime object with the last departure time in the window
+   * @return An unmodifiable NavigableSet view of the departures in the window,
+   *        ordered by departure time and then train number
+   * @throws IllegalArgumentException if from is after to
+   */
+  public NavigableSet<TrainDeparture> getDeparturesBetween(LocalTime from, LocalTime to) {
+    checkWindow(from, to);
+    return departuresBetween(TrainDeparture.toMinuteOfDay(from),
+        TrainDeparture.toMinuteOfDay(to));
+  }
+
+  /**
+   * Gives the departures on a track with a departure time within the window.
+   *
+   * @param from  A LocalTime object with the first departure time in the window
+   * @param to    A LocalTime object with the last departure time in the window
+   * @param track The track of the departures, or -1 for departures without a track
+   * @return An unmodifiable NavigableSet view of the departures on the track in the window,
+   *        ordered by departure time and then train number
+   * @throws IllegalArgumentException if from is after to
+   */
+  public NavigableSet<TrainDeparture> getDeparturesBetween(LocalTime from, LocalTime to,
+                                                           int track) {
+    checkWindow(from, to);
+    return between(onTrack(track), TrainDeparture.toMinuteOfDay(from),
+        TrainDeparture.toMinuteOfDay(to));
+  }
+
+  /**
+   * Gives the departures of a line with a departure time within the window.
+   *
+   * @param from A LocalTime object with the first departure time in the window
+   * @param to   A LocalTime object with the last departure time in the window
+   * @param line A String with the line of the departures
+   * @return An unmodifiable NavigableSet view of the departures of the line in the window,
+   *        ordered by departure time and then train number
+   * @throws IllegalArgumentException if from is after to
+   */
+  public NavigableSet<TrainDeparture> getDeparturesBetween(LocalTime from, LocalTime to,
+                                                           String line) {
+    checkWindow(from, to);
+    return between(ofLine(line), TrainDeparture.toMinuteOfDay(from),
+        TrainDeparture.toMinuteOfDay(to));
+  }
+
+  /**
+   * Gives the departures with an actual departure time, with the delay added, from and
+   * including from, to and including to. If wrapExpiries is true, as in a register made with
+   * the public constructor, the actual departure time of a departure that is delayed past
+   * midnight wraps around to the start of the day, like getActualDepartureTime. Otherwise it is
+   * counted on past the end of the day, so the departure is in no window.
+   *
+   * @param from A LocalTime object with the first actual departure time in the window
+   * @param to   A LocalTime object with the last actual departure time in the window
+   * @return A lazy Stream of the departures, ordered by actual departure time
+   *        and then train number
+   * @throws IllegalArgumentException if from is after to
+   */
+  public Stream<TrainDeparture> getActualDeparturesBetween(LocalTime from, LocalTime to) {
+    checkWindow(from, to);
+    TrainDeparture probe = new TrainDeparture(LocalTime.MIDNIGHT, "", "", "");
+    Expiry first = new Expiry(TrainDeparture.toMinuteOfDay(from), probe);
+    Expiry last = new Expiry(TrainDeparture.toMinuteOfDay(to) + 1, probe);
+    return expiries.subSet(first, last).stream().map(Expiry::departure);
+  }
+
+  /**
+   * Writes a page of the board to a Writer, one line at a time, so that the board is never
+   * built as one String. It first writes the headings, then the departures with a departure
+   * time from and including from, to and including to, in time order. Each line ends with a
+   * line break.
+   *
+   * @param out      A Writer to write the board to. It is not flushed or closed.
+   * @param from     A LocalTime object with the first departure time to write
+   * @param to       A LocalTime object with the last departure time to write
+   * @param offset   The number of departures in the window to skip
+   * @param pageSize The largest number of departures to write
+   * @return The number of departures written
+   * @throws IOException              if writing to out fails
+   * @throws IllegalArgumentException if from is after to, offset is negative
+   *                                  or pageSize is not positive
+   */
+  public int writeBoard(Writer out, LocalTime from, LocalTime to, int offset, int pageSize)
+      throws IOException {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("The start of the window cannot be after the end!");
+    }
+    if (offset < 0 || pageSize < 1) {
+      throw new IllegalArgumentException(
+          "The offset cannot be negative and the page size must be positive!");
+    }
+    out.write(HEADINGS);
+    out.write('\n');
+    int written = 0;
+    int skipped = 0;
+    for (TrainDeparture departure : departuresBetween(
+        TrainDeparture.toMinuteOfDay(from), TrainDeparture.toMinuteOfDay(to))) {
+      if (skipped < offset) {
+        skipped++;
+        continue;
+      }
+      if (written == pageSize) {
+        break;
+      }
+      out.write(departure.toString());
+      out.write('\n');
+      written++;
+    }
+    return written;
+  }
+
+  /**
+   * Writes a page of the board to an OutputStream as UTF-8,
+   * in the same way as writeBoard with a Writer.
+   *
+   * @param out      An OutputStream to write the board to. It is flushed, but not closed.
+   * @param from     A LocalTime object with the first departure time to write
+   * @param to       A LocalTime object with the last departure time to write
+   * @param offset   The number of departures in the window to skip
+   * @param pageSize The largest number of departures to write
+   * @return The number of departures written
+   * @throws IOException              if writing to out fails
+   * @throws IllegalArgumentException if from is after to, offset is negative
+   *                                  or pageSize is not positive
+   */
+  public int writeBoard(OutputStream out, LocalTime from, LocalTime to, int offset, int pageSize)
+      throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    int written = writeBoard(writer, from, to, offset, pageSize);
+    writer.flush();
+    return written;
+  }
+
   /**
    * Makes headings for the departures, then uses toString() on each TrainDeparture
-   * in a sorted list and appends it on a new line.
+   * in time order and appends it on a new line.
    *
    * @return String representing this class
    */
   @Override
   public String toString() {
     StringBuilder temp =
-        new StringBuilder(
-            "Time" + "    " + "Line" + "  " + "Nr." + "   " + "Destination" + "     " + "Delay"
-                + "     " + "Track" + "     " + "ETA");
-    temp.append("\n" + "--------------------------------------------------------------");
-    for (TrainDeparture departure : sortByTime()) {
-      temp.append("\n");
-      temp.append(departure.toString());
-    }
+        new StringBuilder(HEADINGS.length() + departures.size() * (TrainDeparture.ROW_LENGTH + 1));
+    appendBoard(temp);
     return temp.toString();
   }
 }
@@ -18,7 +18,7 @@ import java.util.Scanner;
  * <p>Lastly, there is multiple final static int used for the switch-cases.
  *
  * @author Jakob Huuse
- * @version 1.0.2
+ * @version 1.0.3
  * @since 12.12.2023
  */
 public class TrainDispatchUserInterface {
@@ -68,7 +68,11 @@ public class TrainDispatchUserInterface {
       input = new Scanner(System.in);
       try {
         switch (input.nextInt()) {
-          case PRINT_DEPARTURES -> System.out.println(this);
+          case PRINT_DEPARTURES -> {
+            System.out.println(time);
+            register.writeBoard(System.out, LocalTime.MIN, LocalTime.of(23, 59), 0,
+                Integer.MAX_VALUE);
+          }
           case NEW_DEPARTURE -> {
             LocalTime departureTime = askTime("When is the departure time?");
             System.out.println("What is the line number? (Max 5 characters)");
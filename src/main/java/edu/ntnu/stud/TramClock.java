@@ -1,7 +1,11 @@
 package edu.ntnu.stud;
 
 import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The TramClock class manages the time in the TrainDispatchApp.
@@ -10,16 +14,101 @@ import java.util.ArrayList;
  *
  * <p>The prevClock field is a LocalTime object that stores the previous time.
  *
- * <p>The listeners field is an ArrayList of listeners of a given TramClock object.
+ * <p>The listeners field is an array of listeners of a given TramClock object.
  * Each time the time changes, the listeners of the object will be notified.
+ * The array is never changed, but replaced by a copy when a listener is added or removed,
+ * so listeners can be added and removed while the listeners are being notified,
+ * and notifying them needs no iterator.
+ *
+ * <p>The executor field is null by default, and then the listeners are notified one after another
+ * on the thread that sets the time. If an executor is given, each listener is notified
+ * on the executor instead, in parallel with the other listeners. A listener that is still busy
+ * when the time changes again only gets the newest time once it is done, so a slow listener
+ * skips times instead of falling further and further behind.
+ *
+ * <p>With an executor, the listeners run on the threads of the executor, and not on the thread
+ * that sets the time. A TrainDepartureRegister, the most common listener, is not thread-safe,
+ * so it must then not be read or changed from any other thread while the clock may be updating
+ * it, for example by waiting for awaitListeners before touching it. The same goes for the other
+ * listeners that are not thread-safe, like DepartureJournal.
+ *
+ * <p>The metrics field is null unless metrics have been set, and then the time taken to update
+ * all the listeners, and each listener on its own, is recorded in it.
  *
  * @author Jakob Huuse
- * @version 1.0.1
+ * @version 1.4.2
  * @since 30.11.2023
  */
 public class TramClock {
   private LocalTime clock;
-  private final ArrayList<TramClockListener> listeners;
+  private volatile ListenerDispatch[] listeners;
+  private final Executor executor;
+  private volatile RegisterMetrics metrics;
+
+  /**
+   * Notifies one listener, either directly or on the executor.
+   *
+   * <p>The pending field holds the newest time the listener has not been given yet,
+   * and the scheduled field is true while a task on the executor is notifying the listener.
+   * The times field is the histogram the time of each update is recorded in, or null.
+   */
+  private static final class ListenerDispatch {
+    private final TramClockListener listener;
+    private final Executor executor;
+    private final AtomicReference<LocalTime> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile CompletableFuture<Void> completion = CompletableFuture.completedFuture(null);
+    private volatile LatencyHistogram times;
+
+    private ListenerDispatch(TramClockListener listener, Executor executor) {
+      this.listener = listener;
+      this.executor = executor;
+    }
+
+    private void dispatch(LocalTime clock) {
+      if (executor == null) {
+        deliver(clock);
+        return;
+      }
+      pending.set(clock);
+      if (scheduled.compareAndSet(false, true)) {
+        completion = CompletableFuture.runAsync(this::drain, executor);
+      }
+    }
+
+    /**
+     * Gives the listener the pending time until there is none left.
+     * It checks again after clearing scheduled, in case a time was set in between.
+     */
+    private void drain() {
+      boolean again;
+      do {
+        try {
+          LocalTime clock;
+          while ((clock = pending.getAndSet(null)) != null) {
+            deliver(clock);
+          }
+        } finally {
+          scheduled.set(false);
+        }
+        again = pending.get() != null && scheduled.compareAndSet(false, true);
+      } while (again);
+    }
+
+    private void deliver(LocalTime clock) {
+      LatencyHistogram current = times;
+      if (current == null) {
+        listener.update(clock);
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        listener.update(clock);
+      } finally {
+        current.record(System.nanoTime() - start);
+      }
+    }
+  }
 
   /**
    * Validates that clock won't contain units lower than minutes.
@@ -43,9 +132,26 @@ public class TramClock {
    *              Doesn't contain units lower than minutes
    */
   public TramClock(LocalTime clock) {
+    this(clock, null);
+  }
+
+  /**
+   * A constructor for a TramClock that notifies its listeners on the given executor.
+   *
+   * @param clock    A localtime object that describes the current time.
+   *                 Doesn't contain units lower than minutes
+   * @param executor An Executor the listeners are notified on,
+   *                 or null to notify them on the thread that sets the time
+   */
+  public TramClock(LocalTime clock, Executor executor) {
     validator(clock);
     this.clock = clock;
-    listeners = new ArrayList<>();
+    this.executor = executor;
+    listeners = new ListenerDispatch[0];
+  }
+
+  public LocalTime getTime() {
+    return clock;
   }
 
   /**
@@ -53,17 +159,98 @@ public class TramClock {
    *
    * @param listener an object implementing the TramClockListener interface
    */
-  public void addListener(TramClockListener listener) {
-    listeners.add(listener);
+  public synchronized void addListener(TramClockListener listener) {
+    ListenerDispatch[] temp = Arrays.copyOf(listeners, listeners.length + 1);
+    temp[temp.length - 1] = new ListenerDispatch(listener, executor);
+    if (metrics != null) {
+      temp[temp.length - 1].times = metrics.listenerTimes(listener);
+    }
+    listeners = temp;
+  }
+
+  /**
+   * Removes a listener from listeners. If the listener has been added more than once,
+   * only the first one is removed. A notification that has already started still finishes.
+   * Once the listener is no longer in listeners, its histogram is removed from the metrics.
+   *
+   * @param listener the listener to remove
+   */
+  public synchronized void removeListener(TramClockListener listener) {
+    ListenerDispatch[] current = listeners;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].listener == listener) {
+        ListenerDispatch[] temp = new ListenerDispatch[current.length - 1];
+        System.arraycopy(current, 0, temp, 0, i);
+        System.arraycopy(current, i + 1, temp, i, current.length - i - 1);
+        listeners = temp;
+        if (metrics != null && !isListening(temp, listener)) {
+          metrics.removeListenerTimes(listener);
+        }
+        return;
+      }
+    }
+  }
+
+  private static boolean isListening(ListenerDispatch[] listeners, TramClockListener listener) {
+    for (ListenerDispatch dispatch : listeners) {
+      if (dispatch.listener == listener) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
    * Iterates over listeners and calls their update method.
+   * If the clock has an executor, the update methods are called on it and this method
+   * returns without waiting for them.
    */
   public void updateListeners() {
-    for (TramClockListener listener : listeners) {
-      listener.update(clock);
+    RegisterMetrics current = metrics;
+    long start = current == null ? 0 : System.nanoTime();
+    for (ListenerDispatch listener : listeners) {
+      listener.dispatch(clock);
+    }
+    if (current != null) {
+      current.recordDispatch(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Starts recording the time taken to update the listeners in the given metrics,
+   * or stops recording if it is null. With an executor, the time taken by updateListeners
+   * only covers handing the time to the executor, while the time of each listener is the time
+   * it took on the executor. The histograms of the listeners are removed from the metrics
+   * that were set before.
+   *
+   * @param metrics A RegisterMetrics object, or null to stop recording
+   */
+  public synchronized void setMetrics(RegisterMetrics metrics) {
+    if (this.metrics != null && this.metrics != metrics) {
+      for (ListenerDispatch listener : listeners) {
+        this.metrics.removeListenerTimes(listener.listener);
+      }
+    }
+    this.metrics = metrics;
+    for (ListenerDispatch listener : listeners) {
+      listener.times = metrics == null ? null : metrics.listenerTimes(listener.listener);
+    }
+  }
+
+  /**
+   * Gives a CompletableFuture that completes when every listener has been given the times
+   * set so far. Without an executor, the listeners are always done.
+   *
+   * @return A CompletableFuture that completes when the listeners are done,
+   *        or completes exceptionally if one of them threw
+   */
+  public CompletableFuture<Void> awaitListeners() {
+    ListenerDispatch[] current = listeners;
+    CompletableFuture<?>[] completions = new CompletableFuture<?>[current.length];
+    for (int i = 0; i < completions.length; i++) {
+      completions[i] = current[i].completion;
     }
+    return CompletableFuture.allOf(completions);
   }
 
   /**
@@ -0,0 +1,200 @@
+package edu.ntnu.stud;
+
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * The TramClockScheduler class runs a simulation of a day by moving a TramClock
+ * from one scheduled event to the next, instead of waiting for the real time to pass.
+ *
+ * <p>An event is an action, like giving a departure a delay or drawing a board, that is run
+ * at a given time. The events field is a priority queue ordered by time, and then by the order
+ * the events were scheduled in, so that events at the same time run in the order they were
+ * scheduled. An action may schedule new events, at the current time or later.
+ *
+ * <p>Before an event is run, the clock is set to its time, so that the listeners of the clock,
+ * like a register that removes expired departures, are up to date. If the stepEveryMinute field
+ * is true, the clock is also set to every minute in between, so that the listeners see each
+ * minute as they would in real time. If the clock notifies its listeners on an executor,
+ * the scheduler waits for them before going on, so that the simulation is repeatable.
+ *
+ * <p>The sequence field counts the events that have been scheduled, and is used to keep
+ * the order of events at the same time.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.2
+ * @since 18.10.2026
+ */
+public class TramClockScheduler {
+  private static final Comparator<ScheduledEvent> EVENT_ORDER =
+      Comparator.comparingInt((ScheduledEvent event) -> event.minute)
+          .thenComparingLong(event -> event.sequence);
+
+  private final TramClock clock;
+  private final PriorityQueue<ScheduledEvent> events;
+  private final boolean stepEveryMinute;
+  private long sequence;
+
+  /**
+   * An action scheduled at a time, which can be cancelled until it has run.
+   */
+  public static final class ScheduledEvent {
+    private final int minute;
+    private final long sequence;
+    private final Runnable action;
+    private boolean cancelled;
+
+    private ScheduledEvent(int minute, long sequence, Runnable action) {
+      this.minute = minute;
+      this.sequence = sequence;
+      this.action = action;
+    }
+
+    public LocalTime getTime() {
+      return TrainDeparture.toLocalTime(minute);
+    }
+
+    /**
+     * Stops the event from being run. It is left in the queue and skipped when it is reached.
+     */
+    public void cancel() {
+      cancelled = true;
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+
+  /**
+   * A constructor for a scheduler that only sets the clock to the times of the events.
+   *
+   * @param clock A TramClock to move forward
+   */
+  public TramClockScheduler(TramClock clock) {
+    this(clock, false);
+  }
+
+  /**
+   * A constructor for a scheduler.
+   *
+   * @param clock           A TramClock to move forward
+   * @param stepEveryMinute true to set the clock to every minute between two events
+   */
+  public TramClockScheduler(TramClock clock, boolean stepEveryMinute) {
+    this.clock = clock;
+    this.stepEveryMinute = stepEveryMinute;
+    events = new PriorityQueue<>(EVENT_ORDER);
+  }
+
+  /**
+   * Schedules an action to be run at the given time.
+   *
+   * @param time   A LocalTime object with the time to run the action at.
+   *               Doesn't contain units lower than minutes
+   * @param action A Runnable with the action to run
+   * @return The ScheduledEvent, which can be used to cancel it
+   * @throws IllegalArgumentException if the time is before the time of the clock,
+   *                                  or has units lower than minutes
+   */
+  public ScheduledEvent schedule(LocalTime time, Runnable action) {
+    if (time.getSecond() != 0 || time.getNano() != 0) {
+      throw new IllegalArgumentException("time cannot contain time-units lower than minutes!");
+    }
+    if (time.isBefore(clock.getTime())) {
+      throw new IllegalArgumentException("Cannot schedule an event before the current time!");
+    }
+    ScheduledEvent event =
+        new ScheduledEvent(TrainDeparture.toMinuteOfDay(time), sequence++, action);
+    events.add(event);
+    return event;
+  }
+
+  /**
+   * Gives the number of events waiting to be run, including cancelled ones.
+   *
+   * @return The number of events in the queue
+   */
+  public int getPendingEvents() {
+    return events.size();
+  }
+
+  /**
+   * Runs the next event that is not cancelled, after moving the clock to its time.
+   * The event is only taken from the queue once the clock is known to be able to reach it.
+   *
+   * @return true if an event was run, false if there were no events left
+   * @throws IllegalStateException if the clock has been set past the time of the next event
+   *                               from outside the scheduler. The event is left in the queue,
+   *                               and can be cancelled.
+   */
+  public boolean step() {
+    dropCancelled();
+    ScheduledEvent event = events.peek();
+    if (event == null) {
+      return false;
+    }
+    if (event.minute < TrainDeparture.toMinuteOfDay(clock.getTime())) {
+      throw new IllegalStateException("The clock has passed the time of the next event!");
+    }
+    events.poll();
+    advanceTo(event.minute);
+    event.action.run();
+    return true;
+  }
+
+  /**
+   * Runs every event up to and including the given time in order, then moves the clock
+   * to that time. Events that the actions schedule within the time are also run.
+   *
+   * @param end A LocalTime object with the time to stop at
+   * @return The number of events that were run
+   * @throws IllegalArgumentException if end is before the time of the clock
+   * @throws IllegalStateException    if the clock has been set past the time of an event
+   *                                  from outside the scheduler
+   */
+  public int runUntil(LocalTime end) {
+    if (end.isBefore(clock.getTime())) {
+      throw new IllegalArgumentException("Cannot run the clock to an earlier time!");
+    }
+    int endMinute = TrainDeparture.toMinuteOfDay(end);
+    int run = 0;
+    dropCancelled();
+    while (!events.isEmpty() && events.peek().minute <= endMinute) {
+      step();
+      run++;
+      dropCancelled();
+    }
+    advanceTo(endMinute);
+    return run;
+  }
+
+  /**
+   * Removes the cancelled events from the head of the queue, so that the next event
+   * in the queue is one that will be run.
+   */
+  private void dropCancelled() {
+    while (!events.isEmpty() && events.peek().cancelled) {
+      events.poll();
+    }
+  }
+
+  /**
+   * Moves the clock forward to the given minute, through every minute in between
+   * if stepEveryMinute is true. Does nothing if the clock is already there.
+   *
+   * @param minute The minute since midnight to move the clock to
+   */
+  private void advanceTo(int minute) {
+    int current = TrainDeparture.toMinuteOfDay(clock.getTime());
+    if (minute == current) {
+      return;
+    }
+    int next = stepEveryMinute ? current + 1 : minute;
+    for (; next <= minute; next++) {
+      clock.setTime(TrainDeparture.toLocalTime(next));
+      clock.awaitListeners().join();
+    }
+  }
+}
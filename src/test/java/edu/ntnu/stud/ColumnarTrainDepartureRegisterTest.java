@@ -0,0 +1,143 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the ColumnarTrainDepartureRegister class using JUnit.
+ *
+ * <p>Before each test it initializes a columnar register and a TrainDepartureRegister
+ * with the same departures. Since the columnar register returns views instead of the objects
+ * that were added, most tests compare what the two registers print.
+ *
+ * <p>It checks that adding gives the same exceptions as TrainDepartureRegister, that searching
+ * by train number and destination finds the right departures, and that the register
+ * prints the same board as TrainDepartureRegister.
+ *
+ * <p>It checks that changing the track or delay of a view changes the register, that rows of
+ * expired departures are reused, and that the train number of an expired departure can be used
+ * again. It also checks that the train number dictionary does not grow when departures with
+ * new train numbers keep replacing expired ones.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class ColumnarTrainDepartureRegisterTest {
+
+  private ColumnarTrainDepartureRegister testObj;
+  private TrainDepartureRegister expected;
+
+  @BeforeEach
+  void setup() {
+    testObj = new ColumnarTrainDepartureRegister();
+    expected = new TrainDepartureRegister();
+    for (TrainDeparture departure : List.of(
+        new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen"),
+        new TrainDeparture(LocalTime.of(15, 15), "F22", "1337", "Trondheim", 2),
+        new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Trondheim", 4))) {
+      testObj.addTrainDeparture(departure);
+      expected.addTrainDeparture(departure);
+    }
+  }
+
+  @Test
+  @DisplayName("Check if adding a departure works")
+  void testAddTrainDeparture() {
+    assertEquals(3, testObj.size());
+    Exception numberException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(14, 25), "F15", "608", "Skoger")));
+    assertEquals("The train number is already being used!", numberException.getMessage());
+
+    Exception trackException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(12, 18), "F15", "627", "Skoger", 4)));
+    assertEquals("There can't be two trains on one track at the same departure time!",
+        trackException.getMessage());
+
+    Exception lineException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(12, 18), "F21", "637", "Skoger", 3)));
+    assertEquals("There can't be two trains with the same line at the same departure time!",
+        lineException.getMessage());
+    assertEquals(3, testObj.size());
+  }
+
+  @Test
+  @DisplayName("Check if searching works")
+  void testSearch() {
+    assertEquals("Drammen", testObj.searchTrainNumber("608").getDestination());
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchTrainNumber("607"));
+
+    List<TrainDeparture> trondheim = testObj.searchDestination("TRONDHEIM");
+    assertEquals(2, trondheim.size());
+    assertEquals("H684", trondheim.get(0).getTrainNumber());
+    assertEquals("1337", trondheim.get(1).getTrainNumber());
+    assertThrows(IllegalArgumentException.class,
+        () -> testObj.searchDestination("No mans land"));
+  }
+
+  @Test
+  @DisplayName("Check if the register prints the same board as TrainDepartureRegister")
+  void testToString() {
+    assertEquals(expected.toString(), testObj.toString());
+  }
+
+  @Test
+  @DisplayName("Check if changing a view changes the register")
+  void testViewWriteBack() {
+    testObj.searchTrainNumber("H684").setDelay(LocalTime.of(2, 0));
+    testObj.searchTrainNumber("608").setTrack(3);
+    expected.searchTrainNumber("H684").setDelay(LocalTime.of(2, 0));
+    expected.searchTrainNumber("608").setTrack(3);
+    assertEquals(expected.toString(), testObj.toString());
+
+    testObj.removeExpiredDepartures(LocalTime.of(14, 0));
+    expected.removeExpiredDepartures(LocalTime.of(14, 0));
+    assertEquals(expected.toString(), testObj.toString());
+    assertEquals(2, testObj.size());
+  }
+
+  @Test
+  @DisplayName("Check if expired departures free their rows and train numbers")
+  void testRemoveExpiredDepartures() {
+    TrainDeparture oldView = testObj.searchTrainNumber("608");
+    testObj.update(LocalTime.of(14, 0));
+    assertEquals(1, testObj.size());
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchTrainNumber("608"));
+
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(18, 0), "F14", "608", "Hamar"));
+    oldView.setTrack(7);
+    assertEquals(-1, testObj.searchTrainNumber("608").getTrack());
+    assertEquals("Hamar", testObj.searchTrainNumber("608").getDestination());
+    assertEquals(2, testObj.size());
+  }
+
+  @Test
+  @DisplayName("Check if the train number ids of expired departures are reused")
+  void testTrainNumberIdsReused() {
+    testObj.update(LocalTime.of(23, 59));
+    int idCount = testObj.trainNumberIdCount();
+    for (int day = 0; day < 1000; day++) {
+      testObj.update(LocalTime.of(0, 0));
+      testObj.addTrainDeparture(
+          new TrainDeparture(LocalTime.of(10, 0), "L" + day, "T" + day, "Oslo " + day));
+      testObj.addTrainDeparture(
+          new TrainDeparture(LocalTime.of(11, 0), "L" + day, "U" + day, "Bergen", 3));
+      assertEquals(2, testObj.size());
+      testObj.update(LocalTime.of(12, 0));
+      assertEquals(0, testObj.size());
+    }
+    assertEquals(idCount, testObj.trainNumberIdCount());
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 0), "F1", "T999", "Oslo"));
+    assertEquals("T999", testObj.searchTrainNumber("T999").getTrainNumber());
+    assertEquals(1, testObj.searchDestination("Oslo").size());
+  }
+}
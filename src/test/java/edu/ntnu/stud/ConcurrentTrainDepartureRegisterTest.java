@@ -0,0 +1,152 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the ConcurrentTrainDepartureRegister class using JUnit.
+ *
+ * <p>Before each test it initializes a register with three departures in stripes of their own.
+ *
+ * <p>It checks that the register gives the same results and exceptions as
+ * TrainDepartureRegister when used from one thread, also after a track change moves a departure
+ * within its stripe.
+ *
+ * <p>It then checks that when several threads add departures with the same train number or
+ * the same departure time and track at once, exactly one of them is added, and that a search
+ * running at the same time never finds a departure whose insert was rejected.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class ConcurrentTrainDepartureRegisterTest {
+
+  private ConcurrentTrainDepartureRegister testObj;
+  private TrainDeparture testDeparture1;
+  private TrainDeparture testDeparture2;
+  private TrainDeparture testDeparture3;
+
+  @BeforeEach
+  void setup() {
+    testObj = new ConcurrentTrainDepartureRegister(4);
+    testDeparture1 = new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen");
+    testDeparture2 = new TrainDeparture(LocalTime.of(15, 15), "F22", "1337", "Trondheim", 2);
+    testDeparture3 = new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Trondheim", 4);
+    testObj.addTrainDeparture(testDeparture1);
+    testObj.addTrainDeparture(testDeparture2);
+    testObj.addTrainDeparture(testDeparture3);
+  }
+
+  @Test
+  @DisplayName("Check if the register works from one thread")
+  void testSingleThread() {
+    assertEquals(testDeparture1, testObj.searchTrainNumber("608"));
+    assertEquals(List.of(testDeparture3, testDeparture2), testObj.searchDestination("trondheim"));
+    assertEquals(List.of(testDeparture3, testDeparture1, testDeparture2), testObj.sortByTime());
+
+    Exception numberException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(14, 25), "F15", "608", "Skoger")));
+    assertEquals("The train number is already being used!", numberException.getMessage());
+
+    testDeparture3.setTrack(5);
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F15", "627", "Skoger", 4));
+    Exception trackException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(12, 18), "F16", "628", "Skoger", 5)));
+    assertEquals("There can't be two trains on one track at the same departure time!",
+        trackException.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchTrainNumber("628"));
+
+    testDeparture2.setDelay(LocalTime.of(1, 0));
+    testObj.update(LocalTime.of(15, 30));
+    assertEquals(List.of(testDeparture2), testObj.sortByTime());
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchTrainNumber("608"));
+  }
+
+  @Test
+  @DisplayName("Check if only one of many racing inserts is added")
+  void testConcurrentAdd() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    AtomicInteger added = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      String line = "L" + i;
+      futures.add(executor.submit(() -> {
+        try {
+          testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(9, 0), line, "900", "Bergen"));
+          added.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+          // Another thread added the train number first.
+        }
+      }));
+    }
+    for (int i = 0; i < 64; i++) {
+      String trainNumber = "T" + i;
+      futures.add(executor.submit(() -> {
+        try {
+          testObj.addTrainDeparture(
+              new TrainDeparture(LocalTime.of(10, 0), trainNumber, trainNumber, "Bergen", 3));
+          added.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+          // Another thread took the track first.
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertEquals(2, added.get());
+    assertEquals(5, testObj.sortByTime().size());
+  }
+
+  @Test
+  @DisplayName("Check if a search never finds a departure whose insert is rejected")
+  void testSearchDuringRejectedAdd() throws Exception {
+    int attempts = 20000;
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    AtomicInteger found = new AtomicInteger();
+    AtomicInteger current = new AtomicInteger();
+    Future<?> writer = executor.submit(() -> {
+      for (int i = 0; i < attempts; i++) {
+        String trainNumber = "R" + i;
+        current.set(i);
+        assertThrows(IllegalArgumentException.class, () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(12, 18), "R", trainNumber, "Bergen", 4)));
+      }
+    });
+    Future<?> reader = executor.submit(() -> {
+      while (!writer.isDone()) {
+        try {
+          testObj.searchTrainNumber("R" + current.get());
+          found.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+          // The rejected departure was not found, as it should be.
+        }
+      }
+    });
+    writer.get();
+    reader.get();
+    executor.shutdown();
+
+    assertEquals(0, found.get());
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 19), "R", "R0", "Bergen", 4));
+    assertEquals("R0", testObj.searchTrainNumber("R0").getTrainNumber());
+  }
+}
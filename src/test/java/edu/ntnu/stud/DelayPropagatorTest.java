@@ -0,0 +1,134 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the DelayPropagator class using JUnit.
+ *
+ * <p>Before each test it initializes a register with three departures on track 1,
+ * a departure on track 2 and a departure without a track, and a propagator with a headway
+ * of 3 minutes, where the train of departure 100 runs on as departure 500.
+ *
+ * <p>It checks that a delay is passed on along the track and the turnaround, that it is
+ * lowered again when the primary delay is lowered, and that a change of track moves the delay.
+ * It then checks that invalid turnarounds are rejected, and that only the departures whose
+ * delay changes are published, the propagated delays before the delay that caused them.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class DelayPropagatorTest {
+  private TrainDepartureRegister register;
+  private DelayPropagator propagator;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(12, 0), "F21", "100", "Oslo", 1));
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(12, 5), "F22", "200", "Oslo", 1));
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(12, 30), "F23", "300", "Oslo", 1));
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(12, 10), "F24", "400", "Oslo", 2));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 20), "F25", "500", "Oslo"));
+    propagator = new DelayPropagator(register, 3);
+    propagator.addTurnaround("100", "500", 10);
+  }
+
+  private int delay(String trainNumber) {
+    return register.searchTrainNumber(trainNumber).getDelayMinutes();
+  }
+
+  @Test
+  @DisplayName("Check if a delay is passed on to the departures that depend on it")
+  void testPropagate() {
+    TrainDeparture first = register.searchTrainNumber("100");
+    first.setDelay(LocalTime.of(0, 15));
+    assertEquals(15, delay("100"));
+    assertEquals(13, delay("200"));
+    assertEquals(5, delay("500"));
+    assertEquals(0, delay("300"));
+    assertEquals(0, delay("400"));
+    assertEquals(LocalTime.of(0, 13),
+        propagator.getPropagatedDelay(register.searchTrainNumber("200")));
+
+    first.setDelay(LocalTime.of(0, 40));
+    assertEquals(38, delay("200"));
+    assertEquals(16, delay("300"));
+
+    first.setDelay(LocalTime.of(0, 1));
+    assertEquals(0, delay("200"));
+    assertEquals(0, delay("300"));
+    assertEquals(0, delay("500"));
+  }
+
+  @Test
+  @DisplayName("Check if the primary delay is kept apart from the propagated delay")
+  void testPrimaryDelay() {
+    TrainDeparture second = register.searchTrainNumber("200");
+    second.setDelay(LocalTime.of(0, 5));
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 15));
+    assertEquals(13, delay("200"));
+    assertEquals(LocalTime.of(0, 5), propagator.getPrimaryDelay(second));
+    assertEquals(LocalTime.of(0, 8), propagator.getPropagatedDelay(second));
+
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 0));
+    assertEquals(5, delay("200"));
+
+    second.setDelay(LocalTime.of(0, 0));
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 15));
+    second.setDelay(LocalTime.of(0, 1));
+    assertEquals(13, delay("200"));
+  }
+
+  @Test
+  @DisplayName("Check if a change of track moves the delay to the new track")
+  void testTrackChanged() {
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 15));
+    register.searchTrainNumber("200").setTrack(3);
+    assertEquals(0, delay("200"));
+
+    register.searchTrainNumber("400").setTrack(1);
+    assertEquals(8, delay("400"));
+    register.searchTrainNumber("500").setTrack(1);
+    assertEquals(5, delay("500"));
+    register.searchTrainNumber("400").setDelay(LocalTime.of(0, 20));
+    assertEquals(13, delay("500"));
+  }
+
+  @Test
+  @DisplayName("Check if invalid turnarounds are rejected")
+  void testInvalidTurnaround() {
+    assertThrows(IllegalArgumentException.class,
+        () -> propagator.addTurnaround("500", "100", 5));
+    assertThrows(IllegalArgumentException.class,
+        () -> propagator.addTurnaround("100", "200", -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> propagator.addTurnaround("100", "999", 5));
+  }
+
+  @Test
+  @DisplayName("Check if only the departures whose delay changes are published")
+  void testPublishedChanges() {
+    List<String> changed = new ArrayList<>();
+    register.addChangeListener(changes -> changes.forEach(
+        change -> changed.add(change.departure().getTrainNumber())));
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 5));
+    assertEquals(List.of("200", "100"), changed);
+
+    propagator.close();
+    register.searchTrainNumber("100").setDelay(LocalTime.of(0, 30));
+    assertEquals(3, delay("200"));
+  }
+}
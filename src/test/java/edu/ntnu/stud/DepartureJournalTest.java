@@ -0,0 +1,184 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A test class for the DepartureJournal class using JUnit.
+ *
+ * <p>Before each test it sets the paths of a snapshot and a log in a temporary directory.
+ *
+ * <p>It checks that additions, track changes, delays and expired departures are recovered from
+ * the log, both with and without a checkpoint, and that a record cut off by a crash is dropped
+ * without losing the records before it. It also checks that a log that does not follow the
+ * snapshot is refused, also when the snapshot is missing, unless it ends with a CHECKPOINT
+ * record for the snapshot, in which case its records are skipped. Lastly, it checks that
+ * a change to a departure the register has expired on its own does not stop the log from
+ * being recovered.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.2
+ * @since 18.10.2026
+ */
+public class DepartureJournalTest {
+
+  @TempDir
+  private Path directory;
+  private Path snapshot;
+  private Path log;
+
+  @BeforeEach
+  void setup() {
+    snapshot = directory.resolve("register.snapshot");
+    log = directory.resolve("register.journal");
+  }
+
+  private static void change(DepartureJournal journal) {
+    journal.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo"));
+    journal.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen", 1));
+    journal.addTrainDepartures(
+        List.of(new TrainDeparture(LocalTime.of(15, 15), "F22", "1337", "Trondheim", 2)));
+    journal.getRegister().searchTrainNumber("608").setTrack(4);
+    journal.getRegister().searchTrainNumber("1337").setDelay(LocalTime.of(0, 20));
+    TramClock clock = new TramClock(LocalTime.of(12, 0));
+    clock.addListener(journal);
+    clock.setTime(LocalTime.of(12, 30));
+  }
+
+  @Test
+  @DisplayName("Check if changes are recovered from the log")
+  void testRecover() throws IOException {
+    String board;
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.BATCH)) {
+      change(journal);
+      board = journal.getRegister().toString();
+    }
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      assertEquals(board, journal.getRegister().toString());
+      assertThrows(IllegalArgumentException.class,
+          () -> journal.getRegister().searchTrainNumber("H684"));
+      journal.getRegister().searchTrainNumber("608").setDelay(LocalTime.of(0, 5));
+    }
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.NEVER)) {
+      assertEquals(LocalTime.of(13, 30),
+          journal.getRegister().searchTrainNumber("608").getActualDepartureTime());
+    }
+  }
+
+  @Test
+  @DisplayName("Check if a checkpoint starts a new log")
+  void testCheckpoint() throws IOException {
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.BATCH)) {
+      change(journal);
+      journal.checkpoint(snapshot);
+      journal.getRegister().searchTrainNumber("608").setTrack(5);
+    }
+    assertEquals(1, DepartureJournal.read(log).size());
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.BATCH)) {
+      assertEquals(5, journal.getRegister().searchTrainNumber("608").getTrack());
+      assertEquals(2, journal.getRegister().sortByTime().size());
+    }
+  }
+
+  @Test
+  @DisplayName("Check if a cut off record is dropped and a log of another snapshot is refused")
+  void testCrash() throws IOException {
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      change(journal);
+    }
+    Path oldLog = directory.resolve("old.journal");
+    Files.copy(log, oldLog);
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      assertEquals(3, journal.getRegister().sortByTime().size());
+      assertEquals(LocalTime.of(0, 20),
+          journal.getRegister().searchTrainNumber("1337").getDelay());
+      journal.checkpoint(snapshot);
+    }
+
+    Files.copy(oldLog, log, StandardCopyOption.REPLACE_EXISTING);
+    assertThrows(IOException.class,
+        () -> DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS));
+
+    appendCheckpoint(log, RegisterSnapshot.checksum(snapshot));
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      assertEquals(3, journal.getRegister().sortByTime().size());
+      journal.getRegister().searchTrainNumber("608").setTrack(6);
+    }
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      assertEquals(6, journal.getRegister().searchTrainNumber("608").getTrack());
+      journal.checkpoint(snapshot);
+    }
+
+    Files.delete(snapshot);
+    assertThrows(IOException.class,
+        () -> DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS));
+  }
+
+  /**
+   * Appends the CHECKPOINT record a checkpoint writes before it saves the snapshot,
+   * as if the journal had crashed right after saving it.
+   */
+  private static void appendCheckpoint(Path log, long snapshotChecksum) throws IOException {
+    ByteBuffer content = ByteBuffer.allocate(1 + 2 * Long.BYTES)
+        .put((byte) DepartureJournal.Type.CHECKPOINT.ordinal()).putLong(0)
+        .putLong(snapshotChecksum).flip();
+    CRC32 checksum = new CRC32();
+    checksum.update(content.duplicate());
+    ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + content.remaining())
+        .putInt(content.remaining()).putInt((int) checksum.getValue()).put(content);
+    Files.write(log, record.array(), StandardOpenOption.APPEND);
+  }
+
+  @Test
+  @DisplayName("Check if changes to departures that have left the register are not recorded")
+  void testChangeAfterExpiry() throws IOException {
+    TrainDeparture expired = new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo");
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.ALWAYS)) {
+      journal.addTrainDeparture(expired);
+      journal.addTrainDeparture(
+          new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen", 1));
+      TramClock clock = new TramClock(LocalTime.of(12, 0));
+      clock.addListener(journal.getRegister());
+      clock.addListener(journal);
+      clock.setTime(LocalTime.of(12, 30));
+      expired.setDelay(LocalTime.of(0, 20));
+      expired.setTrack(3);
+      journal.getRegister().searchTrainNumber("608").setTrack(2);
+    }
+    try (DepartureJournal journal =
+             DepartureJournal.open(snapshot, log, DepartureJournal.SyncPolicy.NEVER)) {
+      assertThrows(IllegalArgumentException.class,
+          () -> journal.getRegister().searchTrainNumber("H684"));
+      assertEquals(2, journal.getRegister().searchTrainNumber("608").getTrack());
+    }
+  }
+}
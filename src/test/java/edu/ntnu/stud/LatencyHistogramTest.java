@@ -0,0 +1,59 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the LatencyHistogram class using JUnit.
+ *
+ * <p>It checks that every time falls in a bucket whose largest time is at most a sixteenth
+ * above it, and that the percentiles, mean and max of recorded times are right.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  @DisplayName("Check if times are put in buckets that are close to them")
+  void testBuckets() {
+    int previous = -1;
+    for (long value = 0; value < 100_000; value++) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      assertTrue(bucket == previous || bucket == previous + 1);
+      assertTrue(LatencyHistogram.highestValueIn(bucket) >= value);
+      assertTrue(LatencyHistogram.highestValueIn(bucket) <= value + value / 16);
+      previous = bucket;
+    }
+    assertEquals(Long.MAX_VALUE,
+        LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  @DisplayName("Check if percentiles, mean and max are right")
+  void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(50_500, histogram.getMean());
+    assertEquals(100_000, histogram.getMax());
+    assertEquals(100_000, histogram.getValueAtPercentile(100));
+    long p50 = histogram.getValueAtPercentile(50);
+    assertTrue(p50 >= 50_000 && p50 <= 50_000 + 50_000 / 16);
+    long p99 = histogram.getValueAtPercentile(99);
+    assertTrue(p99 >= 99_000 && p99 <= 100_000);
+    assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+}
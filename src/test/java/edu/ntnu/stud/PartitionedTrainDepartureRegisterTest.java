@@ -0,0 +1,143 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the PartitionedTrainDepartureRegister class using JUnit.
+ *
+ * <p>Before each test it initializes a register with departures at two stations over two days,
+ * and a RollingTramClock it listens to.
+ *
+ * <p>It checks that the same train number can be used at each station and day, but not twice
+ * in one partition, and that the partitions of past days are dropped when the clock passes
+ * midnight, but not before a departure delayed past midnight has left, and that a past day
+ * is dropped at once when the clock jumps past the last minute it can have departures in.
+ * It also checks that many threads can add departures to different stations at once.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.2
+ * @since 18.10.2026
+ */
+public class PartitionedTrainDepartureRegisterTest {
+  private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+  private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+  private PartitionedTrainDepartureRegister register;
+  private RollingTramClock clock;
+
+  @BeforeEach
+  void setup() {
+    register = new PartitionedTrainDepartureRegister();
+    for (LocalDate day : List.of(MONDAY, TUESDAY)) {
+      for (String station : List.of("Oslo S", "Trondheim S")) {
+        register.addTrainDeparture(station, day,
+            new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen", 1));
+        register.addTrainDeparture(station, day,
+            new TrainDeparture(LocalTime.of(23, 50), "F22", "1337", "Bodø", 2));
+      }
+    }
+    clock = new RollingTramClock(MONDAY.atTime(12, 0));
+    clock.addListener(register);
+  }
+
+  @Test
+  @DisplayName("Check if train numbers are unique within a station and day")
+  void testAddTrainDeparture() {
+    assertEquals(List.of("Oslo S", "Trondheim S"), List.copyOf(register.getStations()));
+    assertEquals(List.of(MONDAY, TUESDAY), register.getDays("Oslo S"));
+    Exception exception = assertThrows(IllegalArgumentException.class,
+        () -> register.addTrainDeparture("Oslo S", MONDAY,
+            new TrainDeparture(LocalTime.of(16, 0), "F15", "608", "Skien")));
+    assertEquals("The train number is already being used!", exception.getMessage());
+    assertThrows(IllegalArgumentException.class,
+        () -> register.searchTrainNumber("Bergen", MONDAY, "608"));
+    register.searchTrainNumber("Oslo S", TUESDAY, "608").setTrack(3);
+    assertEquals(1, register.searchTrainNumber("Oslo S", MONDAY, "608").getTrack());
+  }
+
+  @Test
+  @DisplayName("Check if the clock expires departures and drops past days after midnight")
+  void testUpdate() {
+    clock.setTime(MONDAY.atTime(14, 0));
+    assertEquals(List.of("1337"), register.sortByTime("Oslo S", MONDAY).stream()
+        .map(TrainDeparture::getTrainNumber).toList());
+    assertEquals(2, register.sortByTime("Trondheim S", TUESDAY).size());
+
+    clock.setTime(TUESDAY.atTime(0, 5));
+    assertEquals(List.of(TUESDAY), register.getDays("Oslo S"));
+    assertEquals(List.of(TUESDAY), register.getDays("Trondheim S"));
+    assertEquals(List.of(), register.sortByTime("Oslo S", MONDAY));
+    assertEquals(2, register.sortByTime("Oslo S", TUESDAY).size());
+    assertThrows(IllegalArgumentException.class,
+        () -> clock.setTime(MONDAY.atTime(23, 59)));
+  }
+
+  @Test
+  @DisplayName("Check if a departure delayed past midnight is kept until it has left")
+  void testDelayedPastMidnight() {
+    register.searchTrainNumber("Oslo S", MONDAY, "1337").setDelay(LocalTime.of(0, 30));
+    clock.setTime(MONDAY.atTime(23, 51));
+    assertEquals(List.of("1337"), register.sortByTime("Oslo S", MONDAY).stream()
+        .map(TrainDeparture::getTrainNumber).toList());
+    assertEquals(List.of(), register.sortByTime("Trondheim S", MONDAY));
+
+    clock.setTime(TUESDAY.atTime(0, 5));
+    assertEquals(List.of(MONDAY, TUESDAY), register.getDays("Oslo S"));
+    assertEquals(List.of(TUESDAY), register.getDays("Trondheim S"));
+    assertEquals(1, register.sortByTime("Oslo S", MONDAY).size());
+
+    clock.setTime(TUESDAY.atTime(0, 20));
+    assertEquals(List.of(TUESDAY), register.getDays("Oslo S"));
+    assertEquals(2, register.sortByTime("Oslo S", TUESDAY).size());
+  }
+
+  @Test
+  @DisplayName("Check if a past day is dropped once the clock passes its last possible minute")
+  void testDropAfterLastMinute() {
+    register.searchTrainNumber("Oslo S", MONDAY, "1337").setDelay(LocalTime.of(23, 59));
+    clock.setTime(TUESDAY.atTime(23, 48));
+    assertEquals(List.of(MONDAY, TUESDAY), register.getDays("Oslo S"));
+    assertEquals(1, register.sortByTime("Oslo S", MONDAY).size());
+
+    clock.setTime(TUESDAY.plusDays(1).atTime(0, 0));
+    assertEquals(List.of(), register.getDays("Oslo S"));
+    assertEquals(List.of(), register.getDays("Trondheim S"));
+  }
+
+  @Test
+  @DisplayName("Check if stations can be changed by many threads at once")
+  void testConcurrentStations() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        String station = "Station " + thread;
+        futures.add(executor.submit(() -> {
+          for (int minute = 0; minute < 600; minute++) {
+            register.addTrainDeparture(station, MONDAY, new TrainDeparture(
+                LocalTime.of(minute / 60, minute % 60), "L" + minute, "T" + minute, "Oslo"));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    for (int thread = 0; thread < 4; thread++) {
+      assertEquals(600, register.sortByTime("Station " + thread, MONDAY).size());
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the RegisterChangePublisher class and the changes a TrainDepartureRegister
+ * gives its change listeners, using JUnit.
+ *
+ * <p>Before each test it initializes a register with two departures.
+ *
+ * <p>It checks that additions, track changes, delays and expired departures are given
+ * to a listener in the expected batches, with the old values. It then checks that
+ * a Flow subscriber is given a copy of every batch in order, with the values the departure had
+ * at the change, also when it only requests one at a time, and is completed when the publisher
+ * is closed. It also checks that the publisher does not wait for a subscriber that does not
+ * request the batches, and that the subscriber is then told with onError that it missed changes.
+ *
+ * @author Jakob Huuse
+ * @version 1.2.0
+ * @since 18.10.2026
+ */
+public class RegisterChangePublisherTest {
+  private TrainDepartureRegister register;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Oslo"));
+  }
+
+  private void change() {
+    register.addTrainDepartures(List.of(
+        new TrainDeparture(LocalTime.of(14, 0), "F14", "700", "Oslo"),
+        new TrainDeparture(LocalTime.of(15, 0), "F14", "701", "Oslo")));
+    register.searchTrainNumber("608").setTrack(3);
+    register.searchTrainNumber("H684").setDelay(LocalTime.of(1, 30));
+    register.update(LocalTime.of(13, 30));
+  }
+
+  @Test
+  @DisplayName("Check if changes are given to the listeners in batches")
+  void testChangeListener() {
+    List<List<RegisterChange>> batches = new ArrayList<>();
+    register.addChangeListener(batches::add);
+    change();
+
+    assertEquals(4, batches.size());
+    assertEquals(List.of(RegisterChange.Type.ADDED, RegisterChange.Type.ADDED),
+        batches.get(0).stream().map(RegisterChange::type).toList());
+    RegisterChange trackChange = batches.get(1).get(0);
+    assertEquals(RegisterChange.Type.TRACK_CHANGED, trackChange.type());
+    assertEquals(-1, trackChange.oldTrack());
+    assertEquals(3, trackChange.departure().getTrack());
+    RegisterChange delayChange = batches.get(2).get(0);
+    assertEquals(RegisterChange.Type.DELAY_CHANGED, delayChange.type());
+    assertEquals(LocalTime.MIDNIGHT, delayChange.oldDelay());
+    assertEquals(List.of("608"), batches.get(3).stream()
+        .map(change -> change.departure().getTrainNumber()).toList());
+
+    register.update(LocalTime.of(13, 30));
+    assertEquals(4, batches.size());
+  }
+
+  /**
+   * A subscriber that requests the given number of batches at the start and one more after
+   * each batch, and remembers the changes and counts the batches it is given.
+   */
+  private static final class Recorder implements Flow.Subscriber<List<DepartureChange>> {
+    private final List<DepartureChange> changes = new ArrayList<>();
+    private int batches;
+    private final CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+    private final CompletableFuture<Void> completed = new CompletableFuture<>();
+    private final long initialRequest;
+    private Flow.Subscription subscription;
+
+    private Recorder(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialRequest > 0) {
+        subscription.request(initialRequest);
+      }
+      subscribed.complete(subscription);
+    }
+
+    @Override
+    public void onNext(List<DepartureChange> batch) {
+      changes.addAll(batch);
+      batches++;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      completed.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completed.complete(null);
+    }
+  }
+
+  @Test
+  @DisplayName("Check if a subscriber is given copies of every batch as it requests them")
+  void testSubscribe() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Recorder recorder = new Recorder(1);
+    try (RegisterChangePublisher publisher =
+             new RegisterChangePublisher(register, executor, 16)) {
+      publisher.subscribe(recorder);
+      assertEquals(1, publisher.getNumberOfSubscribers());
+      change();
+      register.searchTrainNumber("H684").setTrack(2);
+      assertEquals(0, publisher.getDroppedBatches());
+    }
+    recorder.completed.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+    assertEquals(List.of(RegisterChange.Type.ADDED, RegisterChange.Type.ADDED,
+        RegisterChange.Type.TRACK_CHANGED, RegisterChange.Type.DELAY_CHANGED,
+        RegisterChange.Type.EXPIRED, RegisterChange.Type.TRACK_CHANGED),
+        recorder.changes.stream().map(DepartureChange::type).toList());
+    DepartureChange delayChange = recorder.changes.get(3);
+    assertEquals("H684", delayChange.trainNumber());
+    assertEquals(LocalTime.of(1, 30), delayChange.delay());
+    assertEquals(-1, delayChange.track());
+    assertEquals(2, recorder.changes.get(5).track());
+  }
+
+  @Test
+  @DisplayName("Check if a subscriber with a full buffer is told that it missed changes")
+  void testDropWhenFull() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Recorder recorder = new Recorder(0);
+    long dropped;
+    try (RegisterChangePublisher publisher =
+             new RegisterChangePublisher(register, executor, 1)) {
+      publisher.subscribe(recorder);
+      Flow.Subscription subscription = recorder.subscribed.get(5, TimeUnit.SECONDS);
+      change();
+      dropped = publisher.getDroppedBatches();
+      subscription.request(1);
+    }
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> recorder.completed.get(5, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertTrue(dropped > 0);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+    assertEquals(0, recorder.batches);
+  }
+}
@@ -0,0 +1,117 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the RegisterMetrics class using JUnit.
+ *
+ * <p>Before each test it initializes a register and a clock that share one RegisterMetrics.
+ *
+ * <p>It checks that adding, searching, expiring and updating the listeners of the clock are
+ * counted, also when they throw, that nothing is counted once the metrics are removed, and that
+ * the metrics can be read as text and over JMX. It also checks that the histogram of a listener
+ * is removed when the listener is removed from the clock.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.1
+ * @since 18.10.2026
+ */
+public class RegisterMetricsTest {
+  private TrainDepartureRegister register;
+  private TramClock clock;
+  private RegisterMetrics metrics;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    clock = new TramClock(LocalTime.of(12, 0));
+    clock.addListener(register);
+    metrics = new RegisterMetrics();
+    register.setMetrics(metrics);
+    clock.setMetrics(metrics);
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Oslo"));
+  }
+
+  @Test
+  @DisplayName("Check if the work of the register and clock is counted")
+  void testRecord() {
+    assertThrows(IllegalArgumentException.class, () -> register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(13, 25), "F14", "609", "Oslo")));
+    register.searchTrainNumber("608");
+    register.searchDestination("oslo");
+    assertThrows(IllegalArgumentException.class, () -> register.searchTrainNumber("1"));
+    clock.setTime(LocalTime.of(12, 30));
+    clock.setTime(LocalTime.of(13, 30));
+
+    assertEquals(3, metrics.getAddCount());
+    assertEquals(3, metrics.getSearchCount());
+    assertEquals(2, metrics.getExpiryCount());
+    assertEquals(2, metrics.getExpiredDepartures());
+    assertEquals(1, metrics.getMaxExpiredPerTick());
+    assertEquals(2, metrics.getDispatchCount());
+    assertEquals(1, metrics.getListenerTimes().size());
+    assertEquals(2, metrics.getListenerTimes().values().iterator().next().getCount());
+    assertEquals(0, metrics.getRegisterSize());
+    assertTrue(metrics.dump().startsWith("register.size 0\nregister.add.nanos count=3 "));
+    assertTrue(metrics.dump().contains("clock.listener.nanos TrainDepartureRegister@"));
+
+    register.setMetrics(null);
+    clock.setMetrics(null);
+    assertThrows(IllegalArgumentException.class, () -> register.searchDestination("oslo"));
+    clock.setTime(LocalTime.of(14, 0));
+    assertEquals(3, metrics.getSearchCount());
+    assertEquals(2, metrics.getDispatchCount());
+    metrics.reset();
+    assertEquals(0, metrics.getAddCount());
+  }
+
+  @Test
+  @DisplayName("Check if the histograms of removed listeners are released")
+  void testRemoveListener() {
+    for (int i = 0; i < 100; i++) {
+      int[] updates = new int[1];
+      TramClockListener listener = time -> updates[0]++;
+      clock.addListener(listener);
+      assertEquals(2, metrics.getListenerTimes().size());
+      clock.removeListener(listener);
+    }
+    assertEquals(1, metrics.getListenerTimes().size());
+
+    TramClockListener twice = time -> { };
+    clock.addListener(twice);
+    clock.addListener(twice);
+    clock.removeListener(twice);
+    assertEquals(2, metrics.getListenerTimes().size());
+    clock.removeListener(twice);
+    assertEquals(1, metrics.getListenerTimes().size());
+
+    clock.setMetrics(new RegisterMetrics());
+    assertEquals(0, metrics.getListenerTimes().size());
+  }
+
+  @Test
+  @DisplayName("Check if the metrics can be read over JMX")
+  void testRegisterMBean() throws JMException {
+    ObjectName name = metrics.registerMBean("test");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      assertEquals(2, server.getAttribute(name, "RegisterSize"));
+      assertEquals(2L, server.getAttribute(name, "AddCount"));
+      assertThrows(JMException.class, () -> metrics.registerMBean("test"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
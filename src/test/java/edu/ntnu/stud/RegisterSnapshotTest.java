@@ -0,0 +1,81 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A test class for the RegisterSnapshot class using JUnit.
+ *
+ * <p>Before each test it initializes a register with departures that use every field,
+ * including a delay, a departure without a track, and two departures that ended up on one track
+ * at the same departure time after a track change.
+ *
+ * <p>It checks that a register that is saved and loaded again prints the same board and
+ * still follows the rules of the register. It then checks that loading a file that is not a
+ * snapshot, or a snapshot that has been changed, throws an IOException.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class RegisterSnapshotTest {
+
+  @TempDir
+  private Path directory;
+  private TrainDepartureRegister register;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen"));
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(15, 15), "F22", "1337", "Trondheim", 2));
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(15, 15), "F23", "H684", "Tromsø", 3));
+    register.searchTrainNumber("H684").setTrack(2);
+    register.searchTrainNumber("1337").setDelay(LocalTime.of(1, 5));
+  }
+
+  @Test
+  @DisplayName("Check if saving and loading a register works")
+  void testSaveAndLoad() throws IOException {
+    Path file = directory.resolve("register.snapshot");
+    RegisterSnapshot.save(register, file);
+    TrainDepartureRegister loaded = RegisterSnapshot.load(file);
+    assertEquals(register.toString(), loaded.toString());
+
+    Exception lineException = assertThrows(IllegalArgumentException.class,
+        () -> loaded.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(15, 15), "F22", "700", "Oslo", 5)));
+    assertEquals("There can't be two trains with the same line at the same departure time!",
+        lineException.getMessage());
+    loaded.removeExpiredDepartures(LocalTime.of(16, 0));
+    assertEquals("1337", loaded.sortByTime().get(0).getTrainNumber());
+  }
+
+  @Test
+  @DisplayName("Check if loading a damaged snapshot throws")
+  void testLoadDamaged() throws IOException {
+    Path notSnapshot = directory.resolve("timetable.csv");
+    Files.writeString(notSnapshot, "13:25,F14,608,Drammen,\n");
+    assertEquals("The file is not a register snapshot!",
+        assertThrows(IOException.class, () -> RegisterSnapshot.load(notSnapshot)).getMessage());
+
+    Path file = directory.resolve("register.snapshot");
+    RegisterSnapshot.save(register, file);
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(file, bytes);
+    assertEquals("The snapshot does not match its checksum!",
+        assertThrows(IOException.class, () -> RegisterSnapshot.load(file)).getMessage());
+  }
+}
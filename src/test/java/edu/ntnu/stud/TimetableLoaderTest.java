@@ -0,0 +1,106 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A test class for the TimetableLoader class using JUnit.
+ *
+ * <p>It checks that a file is read the same way no matter how many chunks it is split into,
+ * so that lines crossing the border between two chunks are read once. It also checks that
+ * comments, empty lines, carriage returns and departures without a track are handled,
+ * and that a destination used twice in a chunk is only one String.
+ *
+ * <p>It checks that every line with a problem is reported, and that loading into a register
+ * adds every departure or, if the register rules are broken, none of them.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TimetableLoaderTest {
+
+  @TempDir
+  private Path directory;
+
+  private Path write(String content) throws IOException {
+    Path file = directory.resolve("timetable.csv");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  @DisplayName("Check if reading a file in chunks works")
+  void testRead() throws IOException {
+    Path file = write("""
+        # Time,line,train number,destination,track
+        13:25,F14,608,Drammen,
+        15:15,F22,1337,Trondheim,2\r
+
+        12:18,F21,H684,Trondheim,4
+        06:05,R10,11,Lillehammer,12""");
+    for (int chunks = 1; chunks <= 40; chunks++) {
+      List<TrainDeparture> departures = new TimetableLoader(chunks).read(file);
+      assertEquals(4, departures.size());
+      assertEquals("13:25   F14   608   Drammen                             13:25",
+          departures.get(0).toString());
+      assertEquals("15:15   F22   1337  Trondheim                 2         15:15",
+          departures.get(1).toString());
+      assertEquals("H684", departures.get(2).getTrainNumber());
+      assertEquals(LocalTime.of(6, 5), departures.get(3).getDepartureTime());
+      assertEquals(12, departures.get(3).getTrack());
+    }
+    List<TrainDeparture> departures = new TimetableLoader(1).read(file);
+    assertSame(departures.get(1).getDestination(), departures.get(2).getDestination());
+  }
+
+  @Test
+  @DisplayName("Check if every line with a problem is reported")
+  void testReadErrors() throws IOException {
+    Path file = write("""
+        13:25,F14,608,Drammen,
+        1325,F14,609,Drammen,
+        13:25,F14,610,Drammen
+        13:25,F14,611111,Drammen,
+        13:25,F14,612,Drammen,x
+        """);
+    TimetableImportException exception = assertThrows(TimetableImportException.class,
+        () -> new TimetableLoader(2).read(file));
+    assertEquals(List.of(
+        "Byte 23: The time must be in the format HH:mm!",
+        "Byte 45: A departure must have 5 fields!",
+        "Byte 67: Train-number cannot be longer than 5 characters!",
+        "Byte 93: Expected a number!"), exception.getErrors());
+  }
+
+  @Test
+  @DisplayName("Check if loading into a register works")
+  void testLoad() throws IOException {
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    new TimetableLoader(3).load(write("""
+        13:25,F14,608,Drammen,
+        15:15,F22,1337,Trondheim,2
+        """), register);
+    assertEquals(2, register.sortByTime().size());
+
+    Path conflicting = write("""
+        16:00,F14,700,Oslo,1
+        15:15,F23,701,Oslo,2
+        """);
+    TimetableImportException exception = assertThrows(TimetableImportException.class,
+        () -> new TimetableLoader().load(conflicting, register));
+    assertEquals(1, exception.getErrors().size());
+    assertThrows(IllegalArgumentException.class, () -> register.searchTrainNumber("700"));
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A test class for the TraceReplayer class using JUnit.
+ *
+ * <p>Before each test it records a trace with a DepartureJournal, with additions, a track change,
+ * a delay and two ticks of a clock, and keeps the register the journal ended with.
+ *
+ * <p>It checks that replaying the trace into an empty register ends with the same departures,
+ * that changes the register or clock does not allow are counted as failures, and that compare
+ * finds the departures that differ.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TraceReplayerTest {
+
+  @TempDir
+  private Path directory;
+  private Path trace;
+  private TrainDepartureRegister recorded;
+
+  @BeforeEach
+  void setup() throws IOException {
+    trace = directory.resolve("register.journal");
+    try (DepartureJournal journal = DepartureJournal.open(directory.resolve("register.snapshot"),
+        trace, DepartureJournal.SyncPolicy.NEVER)) {
+      TramClock clock = new TramClock(LocalTime.of(12, 0));
+      clock.addListener(journal);
+      journal.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo"));
+      journal.addTrainDeparture(
+          new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Drammen", 1));
+      journal.addTrainDeparture(
+          new TrainDeparture(LocalTime.of(15, 15), "F22", "1337", "Trondheim", 2));
+      clock.setTime(LocalTime.of(12, 10));
+      journal.getRegister().searchTrainNumber("608").setTrack(4);
+      journal.getRegister().searchTrainNumber("1337").setDelay(LocalTime.of(0, 20));
+      clock.setTime(LocalTime.of(12, 30));
+      recorded = journal.getRegister();
+    }
+  }
+
+  @Test
+  @DisplayName("Check if replaying a trace ends with the recorded departures")
+  void testReplay() throws IOException {
+    for (TraceReplayer replayer : List.of(new TraceReplayer(), new TraceReplayer(1000))) {
+      TrainDepartureRegister register = new TrainDepartureRegister();
+      TramClock clock = new TramClock(LocalTime.MIDNIGHT);
+      clock.addListener(register);
+      TraceReplayer.Report report = replayer.replay(trace, register, clock);
+      assertEquals(7, report.events());
+      assertEquals(0, report.failures());
+      assertTrue(report.p50Nanos() <= report.p99Nanos());
+      assertTrue(report.p99Nanos() <= report.maxNanos());
+      assertTrue(report.eventsPerSecond() > 0);
+      assertEquals(List.of(), TraceReplayer.compare(recorded, register));
+    }
+  }
+
+  @Test
+  @DisplayName("Check if changes that are not allowed are counted and compared")
+  void testFailures() throws IOException {
+    TrainDepartureRegister register = new TrainDepartureRegister();
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(16, 0), "F14", "700", "Oslo"));
+    TramClock clock = new TramClock(LocalTime.of(13, 0));
+    clock.addListener(register);
+    TraceReplayer.Report report = new TraceReplayer().replay(trace, register, clock);
+    assertEquals(3, report.failures());
+    assertEquals(List.of(
+        "Train number 608: Expected 13:25   F14   608   Drammen                   4         13:25"
+            + " but was 13:25   F14   608   Oslo                      4         13:25!",
+        "Train number H684: Not expected!",
+        "Train number 700: Not expected!"), TraceReplayer.compare(recorded, register));
+    assertThrows(IllegalArgumentException.class, () -> new TraceReplayer(0));
+  }
+}
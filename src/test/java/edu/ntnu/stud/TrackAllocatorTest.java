@@ -0,0 +1,91 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the TrackAllocator class using JUnit.
+ *
+ * <p>Before each test it initializes a register with a departure on track 1 and three
+ * departures without a track, one of them delayed.
+ *
+ * <p>It checks that the departures are given free tracks with the dwell and headway taken into
+ * account, also after a delay, that the track that was left last is preferred, and that
+ * departures no track is free for keep having no track. It then checks that no two departures
+ * on a track overlap when many departures are given tracks, and that no more tracks are used
+ * than there are trains at the same time.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.0
+ * @since 18.10.2026
+ */
+public class TrackAllocatorTest {
+  private TrainDepartureRegister register;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    register.addTrainDeparture(
+        new TrainDeparture(LocalTime.of(12, 0), "F21", "100", "Oslo", 1));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 10), "F22", "200", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 14), "F23", "300", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(11, 50), "F24", "400", "Oslo"));
+    register.searchTrainNumber("400").setDelay(LocalTime.of(0, 12));
+  }
+
+  @Test
+  @DisplayName("Check if departures are given free tracks")
+  void testAllocate() {
+    TrackAllocator allocator = new TrackAllocator(List.of(1, 2), 5, 2);
+    Map<TrainDeparture, Integer> plan = allocator.plan(register);
+    assertEquals(List.of("400", "200", "300"),
+        plan.keySet().stream().map(TrainDeparture::getTrainNumber).toList());
+    assertEquals(List.of(2, 2, 1), List.copyOf(plan.values()));
+    assertEquals(-1, register.searchTrainNumber("200").getTrack());
+
+    assertEquals(List.of(), allocator.allocate(register));
+    assertEquals(2, register.searchTrainNumber("400").getTrack());
+    assertEquals(List.of("100", "300"), register.getDeparturesOnTrack(1).stream()
+        .map(TrainDeparture::getTrainNumber).toList());
+
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 15), "F25", "500", "Oslo"));
+    assertEquals(List.of("500"), allocator.allocate(register).stream()
+        .map(TrainDeparture::getTrainNumber).toList());
+    assertThrows(IllegalArgumentException.class, () -> new TrackAllocator(List.of(), 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new TrackAllocator(List.of(0), 1, 1));
+  }
+
+  @Test
+  @DisplayName("Check if many departures are given tracks without overlaps")
+  void testAllocateMany() {
+    TrainDepartureRegister many = new TrainDepartureRegister();
+    for (int minute = 20; minute < 1420; minute++) {
+      many.addTrainDeparture(new TrainDeparture(LocalTime.of(minute / 60, minute % 60),
+          "L" + minute, "T" + minute, "Oslo"));
+    }
+    List<Integer> tracks = new ArrayList<>();
+    for (int track = 1; track <= 20; track++) {
+      tracks.add(track);
+    }
+    assertEquals(List.of(), new TrackAllocator(tracks, 10, 5).allocate(many));
+    int used = 0;
+    for (int track : tracks) {
+      int lastEnd = Integer.MIN_VALUE;
+      for (TrainDeparture departure : many.getDeparturesOnTrack(track)) {
+        assertTrue(departure.getDepartureMinute() - 10 > lastEnd);
+        lastEnd = departure.getDepartureMinute() + 5;
+      }
+      used += many.getDeparturesOnTrack(track).isEmpty() ? 0 : 1;
+    }
+    assertEquals(16, used);
+  }
+}
@@ -4,8 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,6 +24,11 @@ import org.junit.jupiter.api.Test;
  *
  * <p>Firstly, it will check if the addDeparture method throws an IllegalArgumentException when it
  * should. It then checks if it correctly adds a TrainDeparture when it should be valid to add it.
+ * It also checks that the conflict checks follow track changes and expired departures.
+ *
+ * <p>It checks that adding a batch of departures adds all of them when they are valid, and
+ * otherwise adds none of them and reports every problem, both against the register and
+ * within the batch.
  *
  * <p>It then tests the searchTrainNumber method by checking if it gives the expected values
  * for searching for a train number that both is and isn't in the register. It does this by
@@ -25,23 +36,37 @@ import org.junit.jupiter.api.Test;
  * there is no train number matching in the register
  *
  * <p>It tests the searchDestination method by checking if it returns the expected values for
- * searching by a destination that both is and isn't in the register. It does this by comparing the
- * ArrayList the method returns to an expected manually made ArrayList
+ * searching by a destination that both is and isn't in the register, also with different
+ * capitalization, the same way as String.equalsIgnoreCase, and that a list it returned earlier
+ * does not change with the register. It does this by comparing the
+ * List the method returns to an expected manually made ArrayList
  *
  * <p>The removeExpiredDepartures method is tested by checking if the expected TrainDeparture
- * objects get removed from the register. It then checks if it correctly accounts for delay. It does
+ * objects get removed from the register. It then checks if it correctly accounts for delay,
+ * also when the delay is changed more than once. It does
  * this by comparing the returned ArrayList from searching by destination to an expected manually
  * created ArrayList
  *
  * <p>It checks if the register correctly sort the TrainDeparture objects by departureTime.
  * It does this by comparing a manually sorted ArrayList with the ArrayList the method returns.
+ * It also checks that departures with the same departure time are ordered by train number.
  *
  * <p>It checks if the update method correctly removes the expired departures when called.
  *
- * <p>Lastly, it checks if the toString() method gives the expected output.
+ * <p>It checks that the window queries give the departures within a window of departure time,
+ * also only on one track or line, and within a window of actual departure time after a delay.
+ * It checks that the views of the departures on a track or of a line follow track changes,
+ * additions and expired departures, also when a track or line is empty for a while or had
+ * no departures when the view was taken.
+ *
+ * <p>It checks that writeBoard writes the departures within the time window, that it pages
+ * through them with offset and page size, and that it writes the same to an OutputStream.
+ *
+ * <p>Lastly, it checks if the toString() method gives the expected output,
+ * and that appendBoard draws the expected board into a reused StringBuilder.
  *
  * @author Jakob Huuse
- * @version 1.0.2
+ * @version 1.0.6
  * @since 11.12.2023
  */
 public class TrainDepartureRegisterTest {
@@ -91,6 +116,55 @@ public class TrainDepartureRegisterTest {
     );
   }
 
+  @Test
+  @DisplayName("Check if the conflict checks follow track changes")
+  void testAddTrainDepartureAfterTrackChange() {
+    testDeparture3.setTrack(5);
+    TrainDeparture oldTrack = new TrainDeparture(LocalTime.of(12, 18), "F15", "627", "Skoger", 4);
+    testObj.addTrainDeparture(oldTrack);
+    assertEquals(oldTrack, testObj.searchTrainNumber("627"));
+
+    Exception addDepartureException = assertThrows(IllegalArgumentException.class,
+        () -> testObj.addTrainDeparture(
+            new TrainDeparture(LocalTime.of(12, 18), "F16", "628", "Skoger", 5)),
+        "Validator should throw");
+    assertEquals("There can't be two trains on one track at the same departure time!",
+        addDepartureException.getMessage()
+    );
+  }
+
+  @Test
+  @DisplayName("Check if expired departures free their slots")
+  void testAddTrainDepartureAfterExpiry() {
+    testObj.removeExpiredDepartures(LocalTime.of(12, 30));
+    TrainDeparture sameSlot = new TrainDeparture(LocalTime.of(12, 18), "F21", "627", "Skoger", 4);
+    testObj.addTrainDeparture(sameSlot);
+    assertEquals(sameSlot, testObj.searchTrainNumber("627"));
+  }
+
+  @Test
+  @DisplayName("Check if adding a batch of departures works")
+  void testAddTrainDepartures() {
+    TrainDeparture valid1 = new TrainDeparture(LocalTime.of(16, 0), "F14", "700", "Oslo", 1);
+    TrainDeparture valid2 = new TrainDeparture(LocalTime.of(16, 0), "F15", "701", "Oslo", 2);
+    testObj.addTrainDepartures(List.of(valid1, valid2));
+    assertEquals(List.of(valid1, valid2), testObj.searchDestination("Oslo"));
+
+    TimetableImportException importException = assertThrows(TimetableImportException.class,
+        () -> testObj.addTrainDepartures(List.of(
+            new TrainDeparture(LocalTime.of(17, 0), "F14", "800", "Hamar", 1),
+            new TrainDeparture(LocalTime.of(17, 0), "F15", "800", "Hamar", 1),
+            new TrainDeparture(LocalTime.of(12, 18), "F21", "801", "Hamar", 3),
+            new TrainDeparture(LocalTime.of(18, 0), "F14", "802", "Hamar", 1))));
+    assertEquals(List.of(
+        "Train number 800: The train number is already being used!",
+        "Train number 800: There can't be two trains on one track at the same departure time!",
+        "Train number 801: There can't be two trains with the same line at the same departure "
+            + "time!"), importException.getErrors());
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchTrainNumber("802"));
+    assertThrows(IllegalArgumentException.class, () -> testObj.searchDestination("Hamar"));
+  }
+
   @Test
   @DisplayName("Check if searching by train number works")
   void testSearchTrainNumber() {
@@ -109,6 +183,18 @@ public class TrainDepartureRegisterTest {
     expectedArrayList.add(testDeparture3);
     expectedArrayList.add(testDeparture2);
     assertEquals(expectedArrayList, testObj.searchDestination("Trondheim"));
+    assertEquals(expectedArrayList, testObj.searchDestination("tRONDHEIM"));
+    List<TrainDeparture> found = testObj.searchDestination("Trondheim");
+    testObj.removeExpiredDepartures(LocalTime.of(14, 0));
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(16, 0), "F23", "700", "Trondheim"));
+    assertEquals(expectedArrayList, found);
+
+    TrainDeparture izmir = new TrainDeparture(LocalTime.of(17, 0), "F24", "800", "İzmir");
+    TrainDeparture athens = new TrainDeparture(LocalTime.of(18, 0), "F25", "801", "ΑΘΗΝΑΣ");
+    testObj.addTrainDeparture(izmir);
+    testObj.addTrainDeparture(athens);
+    assertEquals(List.of(izmir), testObj.searchDestination("izmir"));
+    assertEquals(List.of(athens), testObj.searchDestination("αθηνασ"));
     Exception searchDestinationException = assertThrows(IllegalArgumentException.class,
         () -> testObj.searchDestination("No mans land"));
     assertEquals("That destination is not in the register!",
@@ -136,6 +222,17 @@ public class TrainDepartureRegisterTest {
     assertEquals(expectedArrayList, testObj.searchDestination("Trondheim"));
   }
 
+  @Test
+  @DisplayName("Check if removing expired departures follows a delay that is changed again")
+  void testRemoveExpiredDepartureChangedDelay() {
+    ArrayList<TrainDeparture> expectedArrayList = new ArrayList<>();
+    expectedArrayList.add(testDeparture2);
+    testDeparture3.setDelay(LocalTime.of(2, 0));
+    testDeparture3.setDelay(LocalTime.of(0, 10));
+    testObj.removeExpiredDepartures(LocalTime.of(14, 0));
+    assertEquals(expectedArrayList, testObj.searchDestination("Trondheim"));
+  }
+
   @Test
   @DisplayName("Check if the register sorts the TrainDeparture objects correctly")
   void testSortByTime() {
@@ -146,6 +243,79 @@ public class TrainDepartureRegisterTest {
     assertEquals(expectedArrayList, testObj.sortByTime());
   }
 
+  @Test
+  @DisplayName("Check if departures with the same time are ordered by train number")
+  void testGetDeparturesByTime() {
+    TrainDeparture sameTime = new TrainDeparture(LocalTime.of(13, 25), "F15", "1000", "Skoger", 1);
+    testObj.addTrainDeparture(sameTime);
+    ArrayList<TrainDeparture> expectedArrayList = new ArrayList<>();
+    expectedArrayList.add(testDeparture3);
+    expectedArrayList.add(sameTime);
+    expectedArrayList.add(testDeparture1);
+    expectedArrayList.add(testDeparture2);
+    assertEquals(expectedArrayList, new ArrayList<>(testObj.getDeparturesByTime()));
+    assertEquals(expectedArrayList, testObj.sortByTime());
+  }
+
+  @Test
+  @DisplayName("Check if the window queries give the departures within the window")
+  void testGetDeparturesBetween() {
+    assertEquals(List.of(testDeparture3, testDeparture1),
+        new ArrayList<>(testObj.getDeparturesBetween(LocalTime.of(12, 18), LocalTime.of(15, 14))));
+    assertEquals(List.of(testDeparture2),
+        new ArrayList<>(testObj.getDeparturesBetween(LocalTime.of(15, 15), LocalTime.of(23, 59))));
+    assertEquals(List.of(testDeparture2),
+        new ArrayList<>(testObj.getDeparturesBetween(LocalTime.MIN, LocalTime.of(23, 59), 2)));
+    assertEquals(List.of(testDeparture1), new ArrayList<>(
+        testObj.getDeparturesBetween(LocalTime.MIN, LocalTime.of(23, 59), "F14")));
+
+    testDeparture3.setDelay(LocalTime.of(1, 30));
+    assertEquals(List.of(testDeparture3, testDeparture2),
+        testObj.getActualDeparturesBetween(LocalTime.of(13, 48), LocalTime.of(23, 59)).toList());
+    assertEquals(List.of(testDeparture1),
+        testObj.getActualDeparturesBetween(LocalTime.MIN, LocalTime.of(13, 47)).toList());
+    assertThrows(IllegalArgumentException.class,
+        () -> testObj.getActualDeparturesBetween(LocalTime.NOON, LocalTime.MIN));
+  }
+
+  @Test
+  @DisplayName("Check if the track and line views follow the register")
+  void testGetDeparturesOnTrack() {
+    NavigableSet<TrainDeparture> track2 = testObj.getDeparturesOnTrack(2);
+    NavigableSet<TrainDeparture> track4 = testObj.getDeparturesOnTrack(4);
+    NavigableSet<TrainDeparture> lineF14 = testObj.getDeparturesOfLine("F14");
+    assertEquals(List.of(testDeparture2), new ArrayList<>(track2));
+    assertEquals(List.of(testDeparture1), new ArrayList<>(testObj.getDeparturesOnTrack(-1)));
+
+    testDeparture1.setTrack(2);
+    assertEquals(List.of(testDeparture1, testDeparture2), new ArrayList<>(track2));
+    assertEquals(List.of(), new ArrayList<>(testObj.getDeparturesOnTrack(-1)));
+    testObj.update(LocalTime.of(13, 0));
+    assertEquals(List.of(), new ArrayList<>(track4));
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(16, 0), "F14", "700", "Oslo", 4));
+    assertEquals(List.of("700"), track4.stream().map(TrainDeparture::getTrainNumber).toList());
+    assertEquals(List.of("608", "700"),
+        lineF14.stream().map(TrainDeparture::getTrainNumber).toList());
+
+    NavigableSet<TrainDeparture> track99 = testObj.getDeparturesOnTrack(99);
+    NavigableSet<TrainDeparture> lineX = testObj.getDeparturesOfLine("X");
+    assertEquals(List.of(), new ArrayList<>(track99));
+    assertEquals(List.of(), new ArrayList<>(lineX));
+    assertEquals(List.of(), new ArrayList<>(
+        testObj.getDeparturesBetween(LocalTime.MIN, LocalTime.of(23, 59), 99)));
+    TrainDeparture late = new TrainDeparture(LocalTime.of(17, 0), "X", "800", "Oslo", 99);
+    testObj.addTrainDeparture(late);
+    assertEquals(List.of(late), new ArrayList<>(track99));
+    assertEquals(late, lineX.first());
+    assertEquals(1, lineX.size());
+
+    testObj.update(LocalTime.of(18, 0));
+    assertEquals(0, track99.size());
+    testObj.addTrainDeparture(new TrainDeparture(LocalTime.of(19, 0), "X", "801", "Oslo", 99));
+    assertEquals(List.of("801"), track99.stream().map(TrainDeparture::getTrainNumber).toList());
+    assertEquals(List.of("801"), lineX.stream().map(TrainDeparture::getTrainNumber).toList());
+  }
+
   @Test
   @DisplayName("Check if the update method works")
   void testUpdate() {
@@ -166,4 +336,48 @@ public class TrainDepartureRegisterTest {
         15:15   F22   1337  Trondheim                 2         15:15""";
     assertEquals(expectedString, testObj.toString());
   }
+
+  @Test
+  @DisplayName("Check if writing the board in pages works")
+  void testWriteBoard() throws IOException {
+    StringWriter out = new StringWriter();
+    assertEquals(2, testObj.writeBoard(out, LocalTime.of(12, 18), LocalTime.of(13, 25), 0, 5));
+    assertEquals(TrainDepartureRegister.HEADINGS + "\n"
+        + testDeparture3 + "\n" + testDeparture1 + "\n", out.toString());
+
+    out = new StringWriter();
+    assertEquals(1, testObj.writeBoard(out, LocalTime.of(12, 0), LocalTime.of(15, 15), 1, 1));
+    assertEquals(TrainDepartureRegister.HEADINGS + "\n" + testDeparture1 + "\n", out.toString());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    assertEquals(3, testObj.writeBoard(bytes, LocalTime.MIN, LocalTime.of(23, 59), 0, 10));
+    assertEquals(testObj.toString() + "\n", bytes.toString(StandardCharsets.UTF_8));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> testObj.writeBoard(new StringWriter(), LocalTime.NOON, LocalTime.MIN, 0, 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> testObj.writeBoard(new StringWriter(), LocalTime.MIN, LocalTime.NOON, 0, 0));
+  }
+
+  @Test
+  @DisplayName("Check if the board can be drawn again into the same StringBuilder")
+  void testAppendBoard() {
+    StringBuilder board = new StringBuilder();
+    testObj.appendBoard(board);
+    assertEquals("""
+        Time    Line  Nr.   Destination     Delay     Track     ETA
+        --------------------------------------------------------------
+        12:18   F21   H684  Trondheim                 4         12:18
+        13:25   F14   608   Drammen                             13:25
+        15:15   F22   1337  Trondheim                 2         15:15""", board.toString());
+    testDeparture1.setDelay(LocalTime.of(0, 5));
+    board.setLength(0);
+    testObj.appendBoard(board);
+    assertEquals("""
+        Time    Line  Nr.   Destination     Delay     Track     ETA
+        --------------------------------------------------------------
+        12:18   F21   H684  Trondheim                 4         12:18
+        13:25   F14   608   Drammen         00:05               13:30
+        15:15   F22   1337  Trondheim                 2         15:15""", board.toString());
+  }
 }
@@ -28,8 +28,11 @@ import org.junit.jupiter.api.Test;
  * objects the other way around. Finally, it checks if the method returns 0 when comparing to
  * TrainDeparture objects with the same departureTime.
  *
+ * <p>It checks that the minute accessors give the same times as the LocalTime getters,
+ * also when the delay makes the actual departure time wrap around midnight.
+ *
  * <p>Lastly, it checks if the toString() method works by checking if it gives the same String as
- * the expected output.
+ * the expected output, also after the delay and track has changed.
  *
  * @author Jakob Huuse
  * @version 1.0.2
@@ -121,11 +124,32 @@ public class TrainDepartureTest {
 
   }
 
+  @Test
+  @DisplayName("Check if the minute accessors work")
+  void testMinuteAccessors() {
+    assertEquals(13 * 60 + 25, testObj.getDepartureMinute());
+    testObj.setDelay(LocalTime.of(1, 50));
+    assertEquals(110, testObj.getDelayMinutes());
+    assertEquals(LocalTime.of(1, 50), testObj.getDelay());
+    assertEquals(15 * 60 + 15, testObj.getActualDepartureMinute());
+    assertEquals(LocalTime.of(15, 15), testObj.getActualDepartureTime());
+
+    TrainDeparture lateDeparture = new TrainDeparture(LocalTime.of(23, 30), "F14", "9", "Oslo");
+    lateDeparture.setDelay(LocalTime.of(1, 0));
+    assertEquals(30, lateDeparture.getActualDepartureMinute());
+    assertEquals(LocalTime.of(0, 30), lateDeparture.getActualDepartureTime());
+  }
+
   @Test
   @DisplayName("Check if the toString() method works")
   void testToString() {
     assertEquals("13:25   F14   608   Drammen                             13:25",
         testObj.toString(),
         "The given string should be equal to testObj.toString()");
+    testObj.setDelay(LocalTime.of(0, 45));
+    testObj.setTrack(12);
+    assertEquals("13:25   F14   608   Drammen         00:45     12        14:10",
+        testObj.toString(),
+        "The string should change when the delay and track changes");
   }
 }
@@ -0,0 +1,122 @@
+package edu.ntnu.stud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for the TramClockScheduler class using JUnit.
+ *
+ * <p>Before each test it initializes a register with two departures, and a clock at 12:00
+ * that the register and a listener that remembers every time listen to.
+ *
+ * <p>It checks that events run in order of time and then of scheduling, with the clock set
+ * to their time and the expired departures removed, that the clock can step through every
+ * minute, and that cancelled events and events before the current time are not run. It also
+ * checks that a cancelled event does not make the scheduler run an event after the end time,
+ * and that an event is kept in the queue when the clock is set past it from outside.
+ *
+ * @author Jakob Huuse
+ * @version 1.0.2
+ * @since 18.10.2026
+ */
+public class TramClockSchedulerTest {
+  private TrainDepartureRegister register;
+  private TramClock clock;
+  private List<LocalTime> times;
+
+  @BeforeEach
+  void setup() {
+    register = new TrainDepartureRegister();
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(12, 18), "F21", "H684", "Oslo"));
+    register.addTrainDeparture(new TrainDeparture(LocalTime.of(13, 25), "F14", "608", "Oslo"));
+    clock = new TramClock(LocalTime.NOON);
+    clock.addListener(register);
+    times = new ArrayList<>();
+    clock.addListener(times::add);
+  }
+
+  @Test
+  @DisplayName("Check if events run in order with the clock at their time")
+  void testRunUntil() {
+    TramClockScheduler scheduler = new TramClockScheduler(clock);
+    List<String> log = new ArrayList<>();
+    scheduler.schedule(LocalTime.of(13, 0), () -> log.add("board " + register.sortByTime().size()));
+    scheduler.schedule(LocalTime.of(12, 10), () -> {
+      register.searchTrainNumber("H684").setDelay(LocalTime.of(0, 30));
+      scheduler.schedule(LocalTime.of(12, 10), () -> log.add("delay " + clock.getTime()));
+    });
+    scheduler.schedule(LocalTime.of(13, 0), () -> log.add("board again"));
+    scheduler.schedule(LocalTime.of(12, 30), () -> log.add("board " + register.sortByTime().size()))
+        .cancel();
+
+    assertEquals(4, scheduler.runUntil(LocalTime.of(14, 0)));
+    assertEquals(List.of("delay 12:10", "board 1", "board again"), log);
+    assertEquals(List.of(LocalTime.of(12, 10), LocalTime.of(13, 0), LocalTime.of(14, 0)), times);
+    assertEquals(0, register.sortByTime().size());
+    assertFalse(scheduler.step());
+  }
+
+  @Test
+  @DisplayName("Check if the clock can step through every minute")
+  void testStepEveryMinute() {
+    TramClockScheduler scheduler = new TramClockScheduler(clock, true);
+    scheduler.schedule(LocalTime.of(12, 5), () -> { });
+    assertEquals(1, scheduler.runUntil(LocalTime.of(12, 20)));
+    assertEquals(20, times.size());
+    assertEquals(LocalTime.of(12, 1), times.get(0));
+    assertEquals(List.of("608"),
+        register.sortByTime().stream().map(TrainDeparture::getTrainNumber).toList());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> scheduler.schedule(LocalTime.of(12, 19), () -> { }));
+    assertThrows(IllegalArgumentException.class,
+        () -> scheduler.runUntil(LocalTime.of(12, 19)));
+  }
+
+  @Test
+  @DisplayName("Check if a cancelled event does not let runUntil pass the end time")
+  void testRunUntilAfterCancelledEvent() {
+    TramClockScheduler scheduler = new TramClockScheduler(clock);
+    List<String> log = new ArrayList<>();
+    scheduler.schedule(LocalTime.of(12, 5), () -> log.add("cancelled")).cancel();
+    scheduler.schedule(LocalTime.of(12, 30), () -> log.add("late"));
+
+    assertEquals(0, scheduler.runUntil(LocalTime.of(12, 10)));
+    assertEquals(List.of(), log);
+    assertEquals(LocalTime.of(12, 10), clock.getTime());
+    assertEquals(1, scheduler.getPendingEvents());
+
+    assertEquals(1, scheduler.runUntil(LocalTime.of(12, 30)));
+    assertEquals(List.of("late"), log);
+  }
+
+  @Test
+  @DisplayName("Check if an event is kept when the clock has been set past it")
+  void testClockSetPastEvent() {
+    TramClockScheduler scheduler = new TramClockScheduler(clock);
+    List<String> log = new ArrayList<>();
+    TramClockScheduler.ScheduledEvent late =
+        scheduler.schedule(LocalTime.of(12, 30), () -> log.add("late"));
+    scheduler.schedule(LocalTime.of(14, 0), () -> log.add("board"));
+    clock.setTime(LocalTime.of(13, 0));
+
+    assertThrows(IllegalStateException.class, scheduler::step);
+    assertEquals(2, scheduler.getPendingEvents());
+    assertEquals(LocalTime.of(13, 0), clock.getTime());
+    assertEquals(List.of(), log);
+
+    late.cancel();
+    assertTrue(scheduler.step());
+    assertEquals(List.of("board"), log);
+    assertEquals(LocalTime.of(14, 0), clock.getTime());
+  }
+}
@@ -5,6 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,6 +27,12 @@ import org.junit.jupiter.api.Test;
  * <p>It tests the updateListeners method by checking if the register removes expired departures
  * when called.
  *
+ * <p>It tests removing listeners, both from outside and from within a listener while the
+ * listeners are being notified.
+ *
+ * <p>It tests the clock with an executor by checking that a slow listener does not hold up
+ * a fast one, and that the slow listener only gets the newest of the times set while it was busy.
+ *
  * <p>It tests the addTime method by first checking if the added time adds up to the expected time.
  * Then it checks if the addTime method throws IllegalArgumentException when trying to add 24 hours
  * or more.
@@ -62,6 +74,59 @@ public class TramClockTest {
     assertEquals(expectedArrayList, testRegister.sortByTime());
   }
 
+  @Test
+  @DisplayName("Test removing listeners")
+  void testRemoveListener() {
+    List<LocalTime> times = new ArrayList<>();
+    TramClockListener listener = times::add;
+    TramClockListener removesItself = new TramClockListener() {
+      @Override
+      public void update(LocalTime clock) {
+        times.add(clock);
+        test.removeListener(this);
+      }
+    };
+    test.addListener(removesItself);
+    test.addListener(listener);
+    test.setTime(LocalTime.of(7, 0));
+    test.setTime(LocalTime.of(8, 0));
+    test.removeListener(listener);
+    test.setTime(LocalTime.of(9, 0));
+    assertEquals(List.of(LocalTime.of(7, 0), LocalTime.of(7, 0), LocalTime.of(8, 0)), times);
+  }
+
+  @Test
+  @DisplayName("Test listeners on an executor")
+  void testListenerOnExecutor() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    TramClock asyncClock = new TramClock(LocalTime.of(6, 0), executor);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<LocalTime> slowTimes = new CopyOnWriteArrayList<>();
+    List<LocalTime> fastTimes = new CopyOnWriteArrayList<>();
+    asyncClock.addListener(clock -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      slowTimes.add(clock);
+    });
+    asyncClock.addListener(fastTimes::add);
+
+    asyncClock.setTime(LocalTime.of(7, 0));
+    started.await();
+    asyncClock.setTime(LocalTime.of(8, 0));
+    asyncClock.setTime(LocalTime.of(9, 0));
+    release.countDown();
+    asyncClock.awaitListeners().get(10, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertEquals(List.of(LocalTime.of(7, 0), LocalTime.of(9, 0)), slowTimes);
+    assertEquals(LocalTime.of(9, 0), fastTimes.get(fastTimes.size() - 1));
+  }
+
   @Test
   @DisplayName("Test addTime method")
   void testAddTime() {